@@ -0,0 +1,137 @@
+import benchmarks.BenchmarkCache;
+import benchmarks.BenchmarkCacheFactory;
+import benchmarks.BenchmarkLongKeyCache;
+import benchmarks.CacheSettings;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+public class CacheFactory implements BenchmarkCacheFactory {
+    private static final int VIRTUAL_NODES = 64;
+
+    @Override
+    public <KEY, VALUE> BenchmarkCache<KEY, VALUE> create(final CacheSettings settings, final Function<KEY, VALUE> loader) {
+        if (settings.getShards() == 0) {
+            return adapt(builder(settings, loader).build());
+        }
+        final var partitionedCache = new PartitionedCache<KEY, VALUE>(VIRTUAL_NODES);
+        for (int i = 0; i < settings.getShards(); i++) {
+            partitionedCache.addShard("shard-" + i, new LocalShard<>(builder(settings, loader).build())).toCompletableFuture().join();
+        }
+        return new BenchmarkCache<>() {
+            @Override
+            public CompletionStage<VALUE> get(final KEY key) {
+                return partitionedCache.get(key);
+            }
+
+            @Override
+            public VALUE getIfPresent(final KEY key) {
+                return partitionedCache.get(key).toCompletableFuture().join();
+            }
+
+            @Override
+            public CompletionStage<Void> set(final KEY key, final VALUE value) {
+                return partitionedCache.set(key, value);
+            }
+        };
+    }
+
+    @Override
+    public <KEY> BenchmarkCache<KEY, byte[]> createBinary(final CacheSettings settings, final Function<KEY, byte[]> loader) {
+        final CacheBuilder<KEY, byte[]> builder = builder(settings, loader);
+        if (settings.isOffHeap()) {
+            builder.offHeap(new Serializer<>() {
+                @Override
+                public byte[] serialize(final byte[] value) {
+                    return value;
+                }
+
+                @Override
+                public byte[] deserialize(final byte[] bytes) {
+                    return bytes;
+                }
+            });
+        }
+        return adapt(builder.build());
+    }
+
+    @Override
+    public <VALUE> BenchmarkLongKeyCache<VALUE> createLongKeyed(final CacheSettings settings, final LongFunction<VALUE> loader) {
+        final var cache = new PrimitiveKeyCacheBuilder<VALUE>()
+                .maximumSize(settings.getMaximumSize())
+                .evictionAlgorithm(settings.getEvictionAlgorithm())
+                .segments(settings.getSegments())
+                .buildLongKeyed(new DataSource<>() {
+                    @Override
+                    public CompletionStage<VALUE> load(final Long key) {
+                        return CompletableFuture.completedFuture(loader.apply(key));
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(final Long key, final VALUE value, final long timestamp) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                });
+        return new BenchmarkLongKeyCache<>() {
+            @Override
+            public CompletionStage<VALUE> get(final long key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public VALUE getIfPresent(final long key) {
+                return cache.getIfPresent(key);
+            }
+
+            @Override
+            public CompletionStage<Void> set(final long key, final VALUE value) {
+                return cache.set(key, value);
+            }
+        };
+    }
+
+    private <KEY, VALUE> CacheBuilder<KEY, VALUE> builder(final CacheSettings settings, final Function<KEY, VALUE> loader) {
+        final CacheBuilder<KEY, VALUE> builder = new CacheBuilder<>();
+        if (settings.isRecordingStats()) {
+            builder.recordStats();
+        }
+        return builder
+                .maximumSize(settings.getMaximumSize())
+                .evictionAlgorithm(settings.getEvictionAlgorithm())
+                .poolSize(settings.getPoolSize())
+                .segments(settings.getSegments())
+                .executionMode(settings.getExecutionMode())
+                .dataSource(new DataSource<>() {
+                    @Override
+                    public CompletionStage<VALUE> load(final KEY key) {
+                        return CompletableFuture.completedFuture(loader.apply(key));
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(final KEY key, final VALUE value, final long timestamp) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                });
+    }
+
+    private <KEY, VALUE> BenchmarkCache<KEY, VALUE> adapt(final Cache<KEY, VALUE> cache) {
+        return new BenchmarkCache<>() {
+            @Override
+            public CompletionStage<VALUE> get(final KEY key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public VALUE getIfPresent(final KEY key) {
+                return cache.getIfPresent(key);
+            }
+
+            @Override
+            public CompletionStage<Void> set(final KEY key, final VALUE value) {
+                return cache.set(key, value);
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package benchmarks;
+
+import java.util.concurrent.CompletionStage;
+
+public interface BenchmarkCache<KEY, VALUE> {
+    CompletionStage<VALUE> get(KEY key);
+
+    VALUE getIfPresent(KEY key);
+
+    CompletionStage<Void> set(KEY key, VALUE value);
+}
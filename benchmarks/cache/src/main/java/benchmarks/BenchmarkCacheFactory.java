@@ -0,0 +1,19 @@
+package benchmarks;
+
+import java.util.ServiceLoader;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+public interface BenchmarkCacheFactory {
+    <KEY, VALUE> BenchmarkCache<KEY, VALUE> create(CacheSettings settings, Function<KEY, VALUE> loader);
+
+    <KEY> BenchmarkCache<KEY, byte[]> createBinary(CacheSettings settings, Function<KEY, byte[]> loader);
+
+    <VALUE> BenchmarkLongKeyCache<VALUE> createLongKeyed(CacheSettings settings, LongFunction<VALUE> loader);
+
+    static BenchmarkCacheFactory load() {
+        return ServiceLoader.load(BenchmarkCacheFactory.class)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No cache factory on the classpath"));
+    }
+}
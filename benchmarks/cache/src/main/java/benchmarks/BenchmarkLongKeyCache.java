@@ -0,0 +1,11 @@
+package benchmarks;
+
+import java.util.concurrent.CompletionStage;
+
+public interface BenchmarkLongKeyCache<VALUE> {
+    CompletionStage<VALUE> get(long key);
+
+    VALUE getIfPresent(long key);
+
+    CompletionStage<Void> set(long key, VALUE value);
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import models.ExecutionMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingLoadBenchmark {
+    private static final int SIZE = 1 << 10;
+    private static final int CONCURRENT_MISSES = 64;
+
+    @Param({"FIXED_POOL", "VIRTUAL_THREAD_MAILBOX"})
+    private ExecutionMode executionMode;
+
+    @Param({"1000"})
+    private long loadLatencyMicros;
+
+    private BenchmarkCache<Long, Long> cache;
+    private final AtomicLong nextKey = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().create(new CacheSettings()
+                .maximumSize(SIZE)
+                .poolSize(4)
+                .executionMode(executionMode), key -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(loadLatencyMicros));
+            return key;
+        });
+    }
+
+    @Benchmark
+    public void concurrentMisses() {
+        final var misses = new CompletableFuture[CONCURRENT_MISSES];
+        for (int i = 0; i < CONCURRENT_MISSES; i++) {
+            misses[i] = cache.get(nextKey.getAndIncrement()).toCompletableFuture();
+        }
+        CompletableFuture.allOf(misses).join();
+    }
+}
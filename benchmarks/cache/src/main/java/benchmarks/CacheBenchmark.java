@@ -0,0 +1,72 @@
+package benchmarks;
+
+import models.EvictionAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"LRU", "LFU", "W_TINY_LFU"})
+    private EvictionAlgorithm evictionAlgorithm;
+
+    @Param({"1", "16"})
+    private int segments;
+
+    private BenchmarkCache<Long, Long> cache;
+    private Long[] keys;
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().create(new CacheSettings()
+                .maximumSize(2 * SIZE)
+                .evictionAlgorithm(evictionAlgorithm)
+                .poolSize(Runtime.getRuntime().availableProcessors())
+                .segments(segments), key -> key);
+        final var shuffled = new ArrayList<Long>();
+        for (long key = 0; key < SIZE; key++) {
+            shuffled.add(key);
+        }
+        Collections.shuffle(shuffled);
+        keys = shuffled.toArray(Long[]::new);
+        for (final Long key : keys) {
+            cache.set(key, key).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    public Long readHit(final ThreadState threadState) {
+        return cache.get(keys[threadState.index++ & MASK]).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Long readHitIfPresent(final ThreadState threadState) {
+        return cache.getIfPresent(keys[threadState.index++ & MASK]);
+    }
+
+    @Benchmark
+    public void readWrite(final ThreadState threadState) {
+        final var key = keys[threadState.index++ & MASK];
+        if ((threadState.index & 15) == 0) {
+            cache.set(key, key).toCompletableFuture().join();
+        } else {
+            cache.get(key).toCompletableFuture().join();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import models.EvictionAlgorithm;
+import models.ExecutionMode;
+
+public class CacheSettings {
+    private int maximumSize;
+    private EvictionAlgorithm evictionAlgorithm;
+    private int poolSize;
+    private int segments;
+    private boolean offHeap;
+    private boolean recordStats;
+    private int shards;
+    private ExecutionMode executionMode;
+
+    public CacheSettings() {
+        maximumSize = 1000;
+        evictionAlgorithm = EvictionAlgorithm.LRU;
+        poolSize = 1;
+        segments = 1;
+        shards = 0;
+        executionMode = ExecutionMode.FIXED_POOL;
+    }
+
+    public CacheSettings maximumSize(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    public CacheSettings evictionAlgorithm(final EvictionAlgorithm evictionAlgorithm) {
+        this.evictionAlgorithm = evictionAlgorithm;
+        return this;
+    }
+
+    public CacheSettings poolSize(final int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public CacheSettings segments(final int segments) {
+        this.segments = segments;
+        return this;
+    }
+
+    public CacheSettings offHeap(final boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    public CacheSettings recordStats(final boolean recordStats) {
+        this.recordStats = recordStats;
+        return this;
+    }
+
+    public CacheSettings shards(final int shards) {
+        this.shards = shards;
+        return this;
+    }
+
+    public CacheSettings executionMode(final ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public EvictionAlgorithm getEvictionAlgorithm() {
+        return evictionAlgorithm;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public boolean isRecordingStats() {
+        return recordStats;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+}
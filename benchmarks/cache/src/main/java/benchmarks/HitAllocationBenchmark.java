@@ -0,0 +1,67 @@
+package benchmarks;
+
+import models.EvictionAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HitAllocationBenchmark {
+    private static final int SIZE = 1 << 14;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"LRU", "LFU", "W_TINY_LFU"})
+    private EvictionAlgorithm evictionAlgorithm;
+
+    private BenchmarkCache<Long, Long> cache;
+    private Long[] keys;
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().create(new CacheSettings()
+                .maximumSize(2 * SIZE)
+                .evictionAlgorithm(evictionAlgorithm)
+                .segments(16), key -> key);
+        keys = new Long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = (long) i;
+            cache.set(keys[i], keys[i]).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    public CompletionStage<Long> get(final ThreadState threadState) {
+        return cache.get(keys[threadState.index++ & MASK]);
+    }
+
+    @Benchmark
+    public Long getIfPresent(final ThreadState threadState) {
+        return cache.getIfPresent(keys[threadState.index++ & MASK]);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HitAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("cache-hit-allocation.json")
+                .build()).run();
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public enum KeyDistribution {
+    UNIFORM {
+        @Override
+        public long[] sample(final int keySpace, final int samples, final Random random) {
+            final long[] keys = new long[samples];
+            for (int i = 0; i < samples; i++) {
+                keys[i] = scramble(random.nextInt(keySpace), keySpace);
+            }
+            return keys;
+        }
+    },
+    ZIPFIAN {
+        private static final double SKEW = 0.99;
+
+        @Override
+        public long[] sample(final int keySpace, final int samples, final Random random) {
+            final double[] cumulative = new double[keySpace];
+            double total = 0;
+            for (int rank = 0; rank < keySpace; rank++) {
+                total += 1 / Math.pow(rank + 1, SKEW);
+                cumulative[rank] = total;
+            }
+            final long[] keys = new long[samples];
+            for (int i = 0; i < samples; i++) {
+                final int position = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                keys[i] = scramble(position < 0 ? -position - 1 : position, keySpace);
+            }
+            return keys;
+        }
+    };
+
+    public abstract long[] sample(int keySpace, int samples, Random random);
+
+    private static long scramble(final int rank, final int keySpace) {
+        return (rank * 0x9E3779B1L) & (keySpace - 1);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyDistributionBenchmark {
+    private static final int KEY_SPACE = 1 << 18;
+    private static final int SAMPLES = 1 << 20;
+    private static final int MASK = SAMPLES - 1;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    @Param({"0.1", "0.5", "0.9"})
+    private double cachedFraction;
+
+    private BenchmarkCache<Long, Long> cache;
+    private long[] keys;
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().create(new CacheSettings()
+                .maximumSize((int) (KEY_SPACE * cachedFraction))
+                .segments(16), key -> key);
+        keys = distribution.sample(KEY_SPACE, SAMPLES, new Random(42));
+        for (final long key : keys) {
+            cache.get(key).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(SAMPLES);
+    }
+
+    @Benchmark
+    public Long get(final ThreadState threadState) {
+        return cache.get(keys[threadState.index++ & MASK]).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Long getSet(final ThreadState threadState) {
+        final long key = keys[threadState.index++ & MASK];
+        if ((threadState.index & 15) == 0) {
+            cache.set(key, key).toCompletableFuture().join();
+            return key;
+        }
+        return cache.get(key).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx1g", "-XX:MaxDirectMemorySize=1g"})
+public class OffHeapBenchmark {
+    private static final int SIZE = 1 << 17;
+    private static final int MASK = SIZE - 1;
+    private static final int VALUE_SIZE = 512;
+
+    @Param({"false", "true"})
+    private boolean offHeap;
+
+    private BenchmarkCache<Long, byte[]> cache;
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().createBinary(new CacheSettings()
+                .maximumSize(SIZE)
+                .segments(16)
+                .offHeap(offHeap), key -> new byte[VALUE_SIZE]);
+        for (long key = 0; key < SIZE; key++) {
+            cache.set(key, new byte[VALUE_SIZE]).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private long index = ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    public byte[] read(final ThreadState threadState) {
+        return cache.getIfPresent(threadState.index++ & MASK);
+    }
+
+    @Benchmark
+    public void readWrite(final ThreadState threadState) {
+        final long key = threadState.index++ & MASK;
+        if ((threadState.index & 7) == 0) {
+            cache.set(key + SIZE, new byte[VALUE_SIZE]).toCompletableFuture().join();
+        } else {
+            cache.getIfPresent(key);
+        }
+    }
+}
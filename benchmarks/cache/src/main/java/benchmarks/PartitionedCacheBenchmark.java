@@ -0,0 +1,43 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedCacheBenchmark {
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"1", "2", "4", "8"})
+    private int shards;
+
+    private BenchmarkCache<Long, Long> cache;
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().create(new CacheSettings()
+                .maximumSize(2 * SIZE / shards)
+                .segments(4)
+                .shards(shards), key -> key);
+        for (long key = 0; key < SIZE; key++) {
+            cache.set(key, key).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private long index = ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    public Long get(final ThreadState threadState) {
+        return cache.get(threadState.index++ & MASK).toCompletableFuture().join();
+    }
+}
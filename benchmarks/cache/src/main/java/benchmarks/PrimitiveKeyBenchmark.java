@@ -0,0 +1,103 @@
+package benchmarks;
+
+import models.EvictionAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimitiveKeyBenchmark {
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+    private static final int FOOTPRINT_ENTRIES = 1 << 20;
+    private static final Long VALUE = Long.MAX_VALUE;
+
+    @Param({"LRU", "LFU", "W_TINY_LFU"})
+    private EvictionAlgorithm evictionAlgorithm;
+
+    private BenchmarkCache<Long, Long> boxed;
+    private BenchmarkLongKeyCache<Long> primitive;
+
+    @Setup
+    public void setUp() {
+        final var settings = new CacheSettings()
+                .maximumSize(2 * SIZE)
+                .evictionAlgorithm(evictionAlgorithm)
+                .segments(16);
+        final var factory = BenchmarkCacheFactory.load();
+        boxed = factory.create(settings, key -> key);
+        primitive = factory.createLongKeyed(settings, key -> key);
+        for (long key = 0; key < SIZE; key++) {
+            boxed.set(key, key).toCompletableFuture().join();
+            primitive.set(key, key).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    public Long boxedHit(final ThreadState threadState) {
+        return boxed.getIfPresent((long) (threadState.index++ & MASK));
+    }
+
+    @Benchmark
+    public Long primitiveHit(final ThreadState threadState) {
+        return primitive.getIfPresent(threadState.index++ & MASK);
+    }
+
+    @Benchmark
+    public void boxedWrite(final ThreadState threadState) {
+        final long key = threadState.index++ & MASK;
+        boxed.set(key, VALUE).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public void primitiveWrite(final ThreadState threadState) {
+        final long key = threadState.index++ & MASK;
+        primitive.set(key, VALUE).toCompletableFuture().join();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final var settings = new CacheSettings().maximumSize(FOOTPRINT_ENTRIES).segments(16);
+        final var factory = BenchmarkCacheFactory.load();
+        final long baseline = usedHeap();
+        final var boxedCache = factory.<Long, Long>create(settings, key -> VALUE);
+        for (long key = 0; key < FOOTPRINT_ENTRIES; key++) {
+            boxedCache.set(key, VALUE).toCompletableFuture().join();
+        }
+        final long boxedBytes = usedHeap() - baseline;
+        final var primitiveCache = factory.<Long>createLongKeyed(settings, key -> VALUE);
+        for (long key = 0; key < FOOTPRINT_ENTRIES; key++) {
+            primitiveCache.set(key, VALUE).toCompletableFuture().join();
+        }
+        final long primitiveBytes = usedHeap() - baseline - boxedBytes;
+        System.out.printf("Retained bytes per entry: boxed %d, primitive %d%n",
+                boxedBytes / FOOTPRINT_ENTRIES, primitiveBytes / FOOTPRINT_ENTRIES);
+        if (boxedCache.getIfPresent(0L) == null || primitiveCache.getIfPresent(0) == null) {
+            throw new IllegalStateException("Footprint caches were collected");
+        }
+        new Runner(new OptionsBuilder()
+                .include(PrimitiveKeyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsBenchmark {
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"false", "true"})
+    private boolean recordStats;
+
+    private BenchmarkCache<Integer, Integer> cache;
+
+    @Setup
+    public void setUp() {
+        cache = BenchmarkCacheFactory.load().create(new CacheSettings()
+                .maximumSize(SIZE)
+                .segments(16)
+                .recordStats(recordStats), key -> key);
+        for (int key = 0; key < SIZE; key++) {
+            cache.set(key, key).toCompletableFuture().join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    public Integer hit(final ThreadState threadState) {
+        return cache.getIfPresent(threadState.index++ & MASK);
+    }
+
+    @Benchmark
+    public Integer miss(final ThreadState threadState) {
+        return cache.getIfPresent(SIZE + (threadState.index++ & MASK));
+    }
+
+    @Benchmark
+    public Integer load(final ThreadState threadState) {
+        return cache.get(SIZE + (threadState.index++ & MASK)).toCompletableFuture().join();
+    }
+}
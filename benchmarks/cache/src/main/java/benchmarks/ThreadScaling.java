@@ -0,0 +1,22 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class ThreadScaling {
+
+    public static void main(final String[] args) throws RunnerException {
+        final int maximumThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final String benchmark = args.length > 1 ? args[1] : CacheBenchmark.class.getSimpleName();
+        for (int threads = 1; threads <= maximumThreads; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(benchmark)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(benchmark + "-threads-" + threads + ".json")
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import benchmarks.BenchmarkEventBus;
+import benchmarks.BenchmarkEventBusFactory;
+import lib.KeyedExecutor;
+import lib.SegmentedTopicLog;
+import models.Event;
+import util.Timer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class EventBusFactory implements BenchmarkEventBusFactory {
+    private static final int SEGMENT_SIZE = 64 << 20;
+    private static final long RETENTION_BYTES = 1L << 30;
+
+    @Override
+    public BenchmarkEventBus create(final int poolSize) {
+        return wrap(new EventBus(new KeyedExecutor<>(poolSize), new KeyedExecutor<>(poolSize), new Timer()));
+    }
+
+    @Override
+    public BenchmarkEventBus create(final int poolSize, final Path logDirectory) {
+        final var timer = new Timer();
+        return wrap(new EventBus(new KeyedExecutor<>(poolSize), new KeyedExecutor<>(poolSize), timer,
+                SegmentedTopicLog.factory(logDirectory, SEGMENT_SIZE, RETENTION_BYTES, Duration.ofDays(1), timer)));
+    }
+
+    private BenchmarkEventBus wrap(final EventBus eventBus) {
+        return new BenchmarkEventBus() {
+            @Override
+            public CompletionStage<Void> publish(final String topic, final Event event) {
+                return eventBus.publish(topic, event);
+            }
+
+            @Override
+            public CompletionStage<Event> poll(final String topic, final String subscriber) {
+                return eventBus.poll(topic, subscriber);
+            }
+
+            @Override
+            public CompletionStage<Void> subscribeForPull(final String topic, final String subscriber, final Predicate<Event> precondition) {
+                return eventBus.subscribeForPull(topic, subscriber, precondition);
+            }
+
+            @Override
+            public CompletionStage<Void> subscribeForPush(final String topic, final String subscriber, final Function<Event, CompletionStage<Void>> handler) {
+                return eventBus.subscribeForPush(topic, subscriber, event -> true, handler, 1);
+            }
+
+            @Override
+            public CompletionStage<Void> rewind(final String topic, final String subscriber) {
+                return eventBus.subscribeToEventsAfter(topic, subscriber, (String) null);
+            }
+
+            @Override
+            public void close() {
+                eventBus.close();
+            }
+        };
+    }
+}
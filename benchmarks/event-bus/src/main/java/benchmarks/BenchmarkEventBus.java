@@ -0,0 +1,21 @@
+package benchmarks;
+
+import models.Event;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public interface BenchmarkEventBus {
+    CompletionStage<Void> publish(String topic, Event event);
+
+    CompletionStage<Event> poll(String topic, String subscriber);
+
+    CompletionStage<Void> subscribeForPull(String topic, String subscriber, Predicate<Event> precondition);
+
+    CompletionStage<Void> subscribeForPush(String topic, String subscriber, Function<Event, CompletionStage<Void>> handler);
+
+    CompletionStage<Void> rewind(String topic, String subscriber);
+
+    void close();
+}
@@ -0,0 +1,16 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.ServiceLoader;
+
+public interface BenchmarkEventBusFactory {
+    BenchmarkEventBus create(int poolSize);
+
+    BenchmarkEventBus create(int poolSize, Path logDirectory);
+
+    static BenchmarkEventBusFactory load() {
+        return ServiceLoader.load(BenchmarkEventBusFactory.class)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No event bus factory on the classpath"));
+    }
+}
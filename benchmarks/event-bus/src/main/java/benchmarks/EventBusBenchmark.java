@@ -0,0 +1,92 @@
+package benchmarks;
+
+import models.Event;
+import models.EventType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventBusBenchmark {
+    private static final String TOPIC = "topic";
+    private static final int EVENTS = 1 << 14;
+    private static final int MASK = EVENTS - 1;
+
+    @Param({"0", "1", "16"})
+    private int pushSubscribers;
+
+    @Param({"memory", "segmented"})
+    private String storage;
+
+    private BenchmarkEventBus eventBus;
+    private Path logDirectory;
+    private Event[] events;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        final var factory = BenchmarkEventBusFactory.load();
+        final int poolSize = Runtime.getRuntime().availableProcessors();
+        logDirectory = storage.equals("segmented") ? Files.createTempDirectory("event-bus-benchmark") : null;
+        eventBus = logDirectory == null ? factory.create(poolSize) : factory.create(poolSize, logDirectory);
+        for (int i = 0; i < pushSubscribers; i++) {
+            eventBus.subscribeForPush(TOPIC, "push-" + i, event -> CompletableFuture.completedFuture(null)).toCompletableFuture().join();
+        }
+        events = new Event[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = new Event("publisher", EventType.LOGGING, "event-" + i, i);
+        }
+        for (final Event event : events) {
+            eventBus.publish(TOPIC, event).toCompletableFuture().join();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        eventBus.close();
+        if (logDirectory != null) {
+            try (final var files = Files.walk(logDirectory)) {
+                for (final Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PullSubscriber {
+        private final String name = "pull-" + ThreadLocalRandom.current().nextLong();
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void subscribe(final EventBusBenchmark benchmark) {
+            benchmark.eventBus.subscribeForPull(TOPIC, name, event -> true).toCompletableFuture().join();
+            benchmark.eventBus.rewind(TOPIC, name).toCompletableFuture().join();
+        }
+    }
+
+    @Benchmark
+    public Void publish(final PullSubscriber subscriber) {
+        final var event = new Event("publisher", EventType.LOGGING, events[subscriber.index++ & MASK].getDescription(), subscriber.index);
+        return eventBus.publish(TOPIC, event).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Event poll(final PullSubscriber subscriber) {
+        final var event = eventBus.poll(TOPIC, subscriber.name).toCompletableFuture().join();
+        if (event == null) {
+            eventBus.rewind(TOPIC, subscriber.name).toCompletableFuture().join();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import models.Event;
+import models.EventType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TopicPublishBenchmark {
+    private static final String TOPIC = "topic";
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"0", "10000000"})
+    private int preloadedEvents;
+
+    private BenchmarkEventBus eventBus;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = BenchmarkEventBusFactory.load().create(Runtime.getRuntime().availableProcessors());
+        while (sequence < preloadedEvents) {
+            final long batchEnd = Math.min(preloadedEvents, sequence + BATCH_SIZE);
+            var lastPublish = eventBus.publish(TOPIC, nextEvent());
+            while (sequence < batchEnd) {
+                lastPublish = eventBus.publish(TOPIC, nextEvent());
+            }
+            lastPublish.toCompletableFuture().join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.close();
+    }
+
+    @Benchmark
+    public Void publish() {
+        return eventBus.publish(TOPIC, nextEvent()).toCompletableFuture().join();
+    }
+
+    private Event nextEvent() {
+        final long id = sequence++;
+        return new Event("event-" + id, "publisher", EventType.LOGGING, "description", id);
+    }
+}
@@ -0,0 +1,26 @@
+import benchmarks.BenchmarkTimerWheel;
+import benchmarks.BenchmarkTimerWheelFactory;
+import models.Request;
+import utils.Timer;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TimerWheelFactory implements BenchmarkTimerWheelFactory {
+
+    @Override
+    public BenchmarkTimerWheel create(final TimeUnit timeUnit, final int timeOutPeriod, final int capacityPerSlot) {
+        final var timerWheel = new TimerWheel(timeUnit, timeOutPeriod, capacityPerSlot, new Timer());
+        return new BenchmarkTimerWheel() {
+            @Override
+            public Future<?> addRequest(final Request request) {
+                return timerWheel.addRequest(request);
+            }
+
+            @Override
+            public Future<?> evict(final String requestId) {
+                return timerWheel.evict(requestId);
+            }
+        };
+    }
+}
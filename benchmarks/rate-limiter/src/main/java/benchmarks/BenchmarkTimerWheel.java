@@ -0,0 +1,11 @@
+package benchmarks;
+
+import models.Request;
+
+import java.util.concurrent.Future;
+
+public interface BenchmarkTimerWheel {
+    Future<?> addRequest(Request request);
+
+    Future<?> evict(String requestId);
+}
@@ -0,0 +1,14 @@
+package benchmarks;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+public interface BenchmarkTimerWheelFactory {
+    BenchmarkTimerWheel create(TimeUnit timeUnit, int timeOutPeriod, int capacityPerSlot);
+
+    static BenchmarkTimerWheelFactory load() {
+        return ServiceLoader.load(BenchmarkTimerWheelFactory.class)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No timer wheel factory on the classpath"));
+    }
+}
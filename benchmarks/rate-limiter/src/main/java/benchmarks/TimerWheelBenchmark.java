@@ -0,0 +1,61 @@
+package benchmarks;
+
+import models.Request;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerWheelBenchmark {
+    private static final int REQUESTS = 1 << 16;
+    private static final int MASK = REQUESTS - 1;
+
+    @Param({"100", "10000"})
+    private int capacityPerSlot;
+
+    private BenchmarkTimerWheel timerWheel;
+    private String[] requestIds;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        timerWheel = BenchmarkTimerWheelFactory.load().create(TimeUnit.SECONDS, 2, capacityPerSlot);
+        requestIds = new String[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            requestIds[i] = "request-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(REQUESTS);
+    }
+
+    @Benchmark
+    public boolean addRequest(final ThreadState threadState) throws InterruptedException {
+        try {
+            timerWheel.addRequest(new Request(requestIds[threadState.index++ & MASK], System.currentTimeMillis() / 1000)).get();
+            return true;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean addAndEvict(final ThreadState threadState) throws InterruptedException {
+        final var requestId = requestIds[threadState.index++ & MASK];
+        try {
+            timerWheel.addRequest(new Request(requestId, System.currentTimeMillis() / 1000)).get();
+            timerWheel.evict(requestId).get();
+            return true;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+}
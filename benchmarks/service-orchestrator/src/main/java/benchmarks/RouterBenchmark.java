@@ -0,0 +1,64 @@
+package benchmarks;
+
+import algorithms.ConsistentHashing;
+import algorithms.Router;
+import algorithms.WeightedRoundRobin;
+import models.Node;
+import models.Request;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouterBenchmark {
+    private static final int REQUESTS = 1 << 16;
+    private static final int MASK = REQUESTS - 1;
+
+    @Param({"CONSISTENT_HASHING", "WEIGHTED_ROUND_ROBIN"})
+    private String algorithm;
+
+    @Param({"4", "64"})
+    private int nodes;
+
+    @Param({"1", "16"})
+    private int pointMultiplier;
+
+    private Router router;
+    private Request[] requests;
+
+    @Setup
+    public void setUp() {
+        router = "CONSISTENT_HASHING".equals(algorithm)
+                ? new ConsistentHashing(RouterBenchmark::hash, pointMultiplier)
+                : new WeightedRoundRobin();
+        for (int i = 0; i < nodes; i++) {
+            router.addNode(new Node("node-" + i, "10.0.0." + i, 1 + i % 3));
+        }
+        requests = new Request[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            requests[i] = new Request("request-" + i, "service", "method");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index = ThreadLocalRandom.current().nextInt(REQUESTS);
+    }
+
+    @Benchmark
+    public Node getAssignedNode(final ThreadState threadState) {
+        return router.getAssignedNode(requests[threadState.index++ & MASK]);
+    }
+
+    private static long hash(final String id) {
+        long hash = id.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return hash * 0xBF58476D1CE4E5B9L;
+    }
+}
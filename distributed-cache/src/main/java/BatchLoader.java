@@ -0,0 +1,82 @@
+import exceptions.KeyNotFoundException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+class BatchLoader<KEY, VALUE> {
+    private final DataSource<KEY, VALUE> dataSource;
+    private final BiConsumer<KEY, VALUE> onLoad;
+    private final ScheduledExecutorService scheduler;
+    private final Duration window;
+    private final int maximumBatchSize;
+    private Map<KEY, CompletableFuture<VALUE>> pending;
+
+    BatchLoader(final DataSource<KEY, VALUE> dataSource,
+                final BiConsumer<KEY, VALUE> onLoad,
+                final ScheduledExecutorService scheduler,
+                final Duration window,
+                final int maximumBatchSize) {
+        this.dataSource = dataSource;
+        this.onLoad = onLoad;
+        this.scheduler = scheduler;
+        this.window = window;
+        this.maximumBatchSize = maximumBatchSize;
+    }
+
+    CompletionStage<VALUE> load(final KEY key) {
+        final CompletableFuture<VALUE> value;
+        Map<KEY, CompletableFuture<VALUE>> fullBatch = null;
+        synchronized (this) {
+            if (pending == null) {
+                final var batch = new HashMap<KEY, CompletableFuture<VALUE>>();
+                pending = batch;
+                scheduler.schedule(() -> dispatch(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            value = pending.computeIfAbsent(key, __ -> new CompletableFuture<>());
+            if (pending.size() >= maximumBatchSize) {
+                fullBatch = pending;
+                pending = null;
+            }
+        }
+        if (fullBatch != null) {
+            loadAll(fullBatch);
+        }
+        return value;
+    }
+
+    void loadAll(final Map<KEY, CompletableFuture<VALUE>> batch) {
+        CompletionStage<Map<KEY, VALUE>> loaded;
+        try {
+            loaded = dataSource.loadAll(new HashSet<>(batch.keySet()));
+        } catch (RuntimeException exception) {
+            loaded = CompletableFuture.failedFuture(exception);
+        }
+        loaded.whenComplete((values, throwable) -> batch.forEach((key, value) -> {
+            if (throwable != null) {
+                value.completeExceptionally(throwable);
+            } else if (!values.containsKey(key)) {
+                value.completeExceptionally(new KeyNotFoundException(key));
+            } else {
+                onLoad.accept(key, values.get(key));
+                value.complete(values.get(key));
+            }
+        }));
+    }
+
+    private void dispatch(final Map<KEY, CompletableFuture<VALUE>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        loadAll(batch);
+    }
+}
@@ -1,179 +1,863 @@
+import algorithms.EvictionPolicy;
+import algorithms.TimerWheel;
 import events.*;
+import exceptions.CacheOverloadedException;
+import lib.KeyedMailboxes;
+import lib.ReadBuffer;
+import lib.RingBuffer;
+import lib.SegmentFileStore;
+import lib.SlabAllocator;
+import lib.TokenBucket;
 import models.*;
+import models.Record;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class Cache<KEY, VALUE> {
-    private final int maximumSize;
+    private static final Duration MAXIMUM_TIME_TO_LIVE = Duration.ofDays(365 * 100);
+    private static final int MAXIMUM_RESTORED_ACCESSES = 15;
+    private static final int MINIMUM_TRACKED_VERSIONS = 1 << 10, MAXIMUM_TRACKED_VERSIONS = 1 << 20;
     private final FetchAlgorithm fetchAlgorithm;
     private final Duration expiryTime;
-    private final Map<KEY, CompletionStage<Record<KEY, VALUE>>> cache;
-    private final ConcurrentSkipListMap<AccessDetails, List<KEY>> priorityQueue;
-    private final ConcurrentSkipListMap<Long, List<KEY>> expiryQueue;
+    private final Segment[] segments;
     private final DataSource<KEY, VALUE> dataSource;
-    private final List<Event<KEY, VALUE>> eventQueue;
-    private final ExecutorService[] executorPool;
+    private final RingBuffer<Event<KEY, VALUE>> eventQueue;
+    private volatile Lane[] lanes;
+    private final int maximumPoolSize;
+    private final int laneCapacity;
+    private final OverloadPolicy overloadPolicy;
+    private final KeyedMailboxes<KEY> mailboxes;
+    private final ScheduledExecutorService scheduler;
+    private final BatchLoader<KEY, VALUE> batchLoader;
+    private final Function<KEY, CompletionStage<VALUE>> loader;
+    private final WriteBehindBuffer<KEY, VALUE> writeBehindBuffer;
+    private final long refreshAfterWrite;
+    private final TokenBucket refreshLimiter;
+    private final Weigher<KEY, VALUE> weigher;
+    private final Serializer<VALUE> serializer;
+    private final SegmentFileStore<KEY> diskTier;
+    private final Serializer<VALUE> diskSerializer;
+    private final Snapshot<KEY, VALUE> snapshot;
+    private final StatsCounter stats;
+    private final NearCache<KEY> nearCache;
     private final Timer timer;
 
-    protected Cache(final int maximumSize,
-                    final Duration expiryTime,
-                    final FetchAlgorithm fetchAlgorithm,
-                    final EvictionAlgorithm evictionAlgorithm,
-                    final DataSource<KEY, VALUE> dataSource,
-                    final Set<KEY> keysToEagerlyLoad,
-                    final Timer timer,
-                    final int poolSize) {
-        this.expiryTime = expiryTime;
-        this.maximumSize = maximumSize;
-        this.fetchAlgorithm = fetchAlgorithm;
-        this.timer = timer;
-        this.cache = new ConcurrentHashMap<>();
-        this.eventQueue = new CopyOnWriteArrayList<>();
-        this.dataSource = dataSource;
-        this.executorPool = new ExecutorService[poolSize];
-        for (int i = 0; i < poolSize; i++) {
-            executorPool[i] = Executors.newSingleThreadExecutor();
-        }
-        priorityQueue = new ConcurrentSkipListMap<>((first, second) -> {
-            final var accessTimeDifference = (int) (first.getLastAccessTime() - second.getLastAccessTime());
-            if (evictionAlgorithm.equals(EvictionAlgorithm.LRU)) {
-                return accessTimeDifference;
-            } else {
-                final var accessCountDifference = first.getAccessCount() - second.getAccessCount();
-                return accessCountDifference != 0 ? accessCountDifference : accessTimeDifference;
-            }
+    protected Cache(final CacheBuilder<KEY, VALUE> builder, final SegmentFileStore<KEY> diskTier) {
+        this.expiryTime = builder.expiryTime;
+        this.fetchAlgorithm = builder.fetchAlgorithm;
+        this.timer = builder.timer;
+        this.weigher = builder.weigher;
+        this.serializer = builder.serializer;
+        this.diskTier = diskTier;
+        this.diskSerializer = builder.diskSerializer;
+        this.snapshot = builder.snapshot;
+        this.stats = new StatsCounter(builder.recordStats);
+        this.refreshAfterWrite = toNanos(builder.refreshAfterWrite);
+        this.refreshLimiter = new TokenBucket(builder.maximumRefreshRate, timer.getCurrentTime());
+        this.eventQueue = new RingBuffer<>(builder.eventQueueCapacity, builder.overflowPolicy);
+        this.dataSource = builder.dataSource;
+        this.mailboxes = builder.executionMode == ExecutionMode.VIRTUAL_THREAD_MAILBOX ? new KeyedMailboxes<>() : null;
+        this.maximumPoolSize = Math.max(builder.poolSize, builder.maximumPoolSize);
+        this.laneCapacity = builder.laneCapacity;
+        this.overloadPolicy = builder.overloadPolicy;
+        this.lanes = new Lane[builder.segments > 1 || mailboxes != null ? 0 : builder.poolSize];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+        }
+        this.segments = newSegments(builder.segments);
+        for (int i = 0; i < builder.segments; i++) {
+            final int segmentSize = Math.max(1, builder.maximumSize / builder.segments + (i < builder.maximumSize % builder.segments ? 1 : 0));
+            final long segmentWeight = builder.maximumWeight / builder.segments + (i < builder.maximumWeight % builder.segments ? 1 : 0);
+            segments[i] = weigher == null
+                    ? new Segment(segmentSize, Long.MAX_VALUE, builder.evictionPolicy(segmentSize))
+                    : new Segment(Integer.MAX_VALUE, segmentWeight, builder.evictionPolicy(segmentSize));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "cache-clean-up");
+            thread.setDaemon(true);
+            return thread;
         });
-        expiryQueue = new ConcurrentSkipListMap<>();
-        final var eagerLoading = keysToEagerlyLoad.stream()
-                .map(key -> getThreadFor(key, addToCache(key, loadFromDB(dataSource, key))))
+        scheduler.scheduleWithFixedDelay(this::cleanUp, builder.cleanUpInterval.toNanos(), builder.cleanUpInterval.toNanos(), TimeUnit.NANOSECONDS);
+        this.batchLoader = new BatchLoader<>(dataSource, this::onLoad, scheduler, builder.batchLoadWindow, builder.maximumBatchSize);
+        this.loader = builder.batchLoadWindow.isZero() ? key -> loadFromDB(dataSource, key) : batchLoader::load;
+        this.writeBehindBuffer = new WriteBehindBuffer<>(dataSource, this::onWrite, scheduler, builder.writeBackDelay, builder.writeBackBatchSize, builder.writeBackCapacity);
+        this.nearCache = builder.transport == null ? null : new NearCache<>(builder.nodeId, builder.transport, scheduler, builder.invalidationBatchWindow,
+                Math.max(MINIMUM_TRACKED_VERSIONS, Math.min(builder.maximumSize, MAXIMUM_TRACKED_VERSIONS)), key -> segmentFor(key).invalidate(key));
+        if (snapshot != null) {
+            snapshot.read(timer.getCurrentTime(), record -> segmentFor(record.getKey()).restore(record));
+        }
+        final var eagerLoading = builder.onStartLoad.stream()
+                .map(key -> getThreadFor(key, () -> segmentFor(key).getOrLoad(key, loader), null))
                 .toArray(CompletableFuture[]::new);
         CompletableFuture.allOf(eagerLoading).join();
     }
 
-    private <U> CompletionStage<U> getThreadFor(KEY key, CompletionStage<U> task) {
-        return CompletableFuture.supplyAsync(() -> task, executorPool[Math.abs(key.hashCode() % executorPool.length)]).thenCompose(Function.identity());
+    private <U> CompletionStage<U> getThreadFor(KEY key, Supplier<CompletionStage<U>> task, Supplier<U> staleValue) {
+        if (mailboxes != null) {
+            return mailboxes.submit(key, task);
+        }
+        final var currentLanes = lanes;
+        if (currentLanes.length == 0) {
+            return task.get();
+        }
+        var lane = currentLanes[Math.abs(key.hashCode() % currentLanes.length)];
+        if (!lane.tryAcquire(laneCapacity)) {
+            final var grownLanes = grow(currentLanes);
+            lane = grownLanes[Math.abs(key.hashCode() % grownLanes.length)];
+            if (!lane.tryAcquire(laneCapacity)) {
+                return overload(key, task, staleValue);
+            }
+        }
+        final var acquiredLane = lane;
+        final var stage = task.get();
+        try {
+            return CompletableFuture.supplyAsync(() -> stage, acquiredLane.executor)
+                    .thenCompose(Function.identity())
+                    .whenComplete((__, throwable) -> acquiredLane.release());
+        } catch (RejectedExecutionException e) {
+            acquiredLane.release();
+            return stage;
+        }
+    }
+
+    private <U> CompletionStage<U> overload(final KEY key, final Supplier<CompletionStage<U>> task, final Supplier<U> staleValue) {
+        stats.recordOverload();
+        if (overloadPolicy == OverloadPolicy.CALLER_RUNS) {
+            return task.get();
+        }
+        if (overloadPolicy == OverloadPolicy.SHED_STALE && staleValue != null) {
+            final U value = staleValue.get();
+            if (value != null) {
+                return CompletableFuture.completedFuture(value);
+            }
+        }
+        return CompletableFuture.failedFuture(new CacheOverloadedException(key));
+    }
+
+    private synchronized Lane[] grow(final Lane[] currentLanes) {
+        if (currentLanes != lanes || currentLanes.length >= maximumPoolSize || currentLanes[0].executor.isShutdown()) {
+            return lanes;
+        }
+        final var grownLanes = Arrays.copyOf(currentLanes, Math.min(maximumPoolSize, currentLanes.length * 2));
+        for (int i = currentLanes.length; i < grownLanes.length; i++) {
+            grownLanes[i] = new Lane();
+        }
+        lanes = grownLanes;
+        return grownLanes;
+    }
+
+    private synchronized void shutdownLanes() {
+        for (final Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Segment[] newSegments(final int numberOfSegments) {
+        return (Segment[]) new Cache<?, ?>.Segment[numberOfSegments];
+    }
+
+    private Segment segmentFor(final KEY key) {
+        final int hash = key.hashCode() * 0x9E3779B9;
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
     }
 
     public CompletionStage<VALUE> get(KEY key) {
-        return getThreadFor(key, getFromCache(key));
+        final var segment = segmentFor(key);
+        final var record = segment.getIfPresent(key);
+        if (record != null) {
+            return record.getValueFuture();
+        }
+        return getThreadFor(key, () -> segment.getFromCache(key, loader), () -> segment.getStaleValue(key));
     }
 
-    public CompletionStage<Void> set(KEY key, VALUE value) {
-        return getThreadFor(key, setInCache(key, value));
-    }
-
-    private CompletionStage<VALUE> getFromCache(KEY key) {
-        final CompletionStage<Record<KEY, VALUE>> result;
-        if (!cache.containsKey(key)) {
-            result = addToCache(key, loadFromDB(dataSource, key));
-        } else {
-            result = cache.get(key).thenCompose(record -> {
-                if (hasExpired(record)) {
-                    priorityQueue.get(record.getAccessDetails()).remove(key);
-                    expiryQueue.get(record.getInsertionTime()).remove(key);
-                    eventQueue.add(new Eviction<>(record, Eviction.Type.EXPIRY, timer.getCurrentTime()));
-                    return addToCache(key, loadFromDB(dataSource, key));
-                } else {
-                    return CompletableFuture.completedFuture(record);
+    public CompletionStage<Map<KEY, VALUE>> getAll(Collection<KEY> keys) {
+        final Map<KEY, CompletionStage<VALUE>> lookups = new HashMap<>();
+        final var bulkLoad = new BulkLoad();
+        for (final KEY key : keys) {
+            final var segment = segmentFor(key);
+            final var record = segment.getIfPresent(key);
+            if (record != null) {
+                lookups.put(key, record.getValueFuture());
+            } else {
+                final var lookup = segment.getFromCache(key, bulkLoad);
+                lookups.put(key, getThreadFor(key, () -> lookup, null));
+            }
+        }
+        bulkLoad.dispatch();
+        final var results = lookups.values().stream()
+                .map(lookup -> lookup.toCompletableFuture().exceptionally(__ -> null))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(results).thenApply(__ -> {
+            final Map<KEY, VALUE> values = new HashMap<>();
+            lookups.forEach((key, lookup) -> {
+                final var value = lookup.toCompletableFuture();
+                if (!value.isCompletedExceptionally()) {
+                    values.put(key, value.join());
                 }
             });
-        }
-        return result.thenApply(record -> {
-            priorityQueue.get(record.getAccessDetails()).remove(key);
-            final AccessDetails updatedAccessDetails = record.getAccessDetails().update(timer.getCurrentTime());
-            priorityQueue.putIfAbsent(updatedAccessDetails, new CopyOnWriteArrayList<>());
-            priorityQueue.get(updatedAccessDetails).add(key);
-            record.setAccessDetails(updatedAccessDetails);
-            return record.getValue();
+            return values;
         });
     }
 
-    public CompletionStage<Void> setInCache(KEY key, VALUE value) {
-        CompletionStage<Void> result = CompletableFuture.completedFuture(null);
-        if (cache.containsKey(key)) {
-            result = cache.remove(key)
-                    .thenAccept(oldRecord -> {
-                        priorityQueue.get(oldRecord.getAccessDetails()).remove(key);
-                        expiryQueue.get(oldRecord.getInsertionTime()).remove(key);
-                        if (hasExpired(oldRecord)) {
-                            eventQueue.add(new Eviction<>(oldRecord, Eviction.Type.EXPIRY, timer.getCurrentTime()));
-                        } else {
-                            eventQueue.add(new Update<>(new Record<>(key, value, timer.getCurrentTime()), oldRecord, timer.getCurrentTime()));
-                        }
-                    });
+    public VALUE getIfPresent(KEY key) {
+        final var record = segmentFor(key).getIfPresent(key);
+        return record == null ? null : record.getValue();
+    }
+
+    public CompletionStage<Void> set(KEY key, VALUE value) {
+        return set(key, value, expiryTime);
+    }
+
+    public CompletionStage<Void> set(KEY key, VALUE value, Duration timeToLive) {
+        return getThreadFor(key, () -> segmentFor(key).setInCache(key, value, timeToLive), null);
+    }
+
+    Map<KEY, VALUE> getResidentEntries(final Predicate<KEY> filter) {
+        final Map<KEY, VALUE> entries = new HashMap<>();
+        for (final Segment segment : segments) {
+            segment.collectResidentEntries(filter, entries);
         }
-        return result.thenCompose(__ -> addToCache(key, CompletableFuture.completedFuture(value))).thenCompose(record -> {
-            final CompletionStage<Void> writeOperation = persistRecord(record);
-            return fetchAlgorithm == FetchAlgorithm.WRITE_THROUGH ? writeOperation : CompletableFuture.completedFuture(null);
-        });
+        return entries;
     }
 
-    private CompletionStage<Record<KEY, VALUE>> addToCache(final KEY key, final CompletionStage<VALUE> valueFuture) {
-        manageEntries();
-        final var recordFuture = valueFuture.thenApply(value -> {
-            final Record<KEY, VALUE> record = new Record<>(key, value, timer.getCurrentTime());
-            expiryQueue.putIfAbsent(record.getInsertionTime(), new CopyOnWriteArrayList<>());
-            expiryQueue.get(record.getInsertionTime()).add(key);
-            priorityQueue.putIfAbsent(record.getAccessDetails(), new CopyOnWriteArrayList<>());
-            priorityQueue.get(record.getAccessDetails()).add(key);
-            return record;
-        });
-        cache.put(key, recordFuture);
-        return recordFuture;
+    CompletionStage<Void> install(final KEY key, final VALUE value) {
+        return segmentFor(key).install(key, value);
+    }
+
+    void invalidate(final KEY key) {
+        segmentFor(key).invalidate(key);
+    }
+
+    public long getWeightedSize() {
+        long weightedSize = 0;
+        for (final Segment segment : segments) {
+            weightedSize += segment.weightedSize;
+        }
+        return weightedSize;
+    }
+
+    public long getOffHeapSize() {
+        long offHeapSize = 0;
+        for (final Segment segment : segments) {
+            offHeapSize += segment.allocator == null ? 0 : segment.allocator.getAllocatedBytes();
+        }
+        return offHeapSize;
+    }
+
+    public long getDiskSize() {
+        return diskTier == null ? 0 : diskTier.getSize();
+    }
+
+    public CacheStats stats() {
+        final var currentLanes = lanes;
+        final int[] executorQueueDepths = new int[currentLanes.length];
+        for (int i = 0; i < currentLanes.length; i++) {
+            executorQueueDepths[i] = currentLanes[i].depth.get();
+        }
+        return stats.snapshot(executorQueueDepths, getWeightedSize(), getOffHeapSize());
     }
 
-    private synchronized void manageEntries() {
-        if (cache.size() >= maximumSize) {
-            while (!expiryQueue.isEmpty() && hasExpired(expiryQueue.firstKey())) {
-                final List<KEY> keys = expiryQueue.pollFirstEntry().getValue();
-                for (final KEY key : keys) {
-                    final Record<KEY, VALUE> expiredRecord = cache.remove(key).toCompletableFuture().join();
-                    priorityQueue.remove(expiredRecord.getAccessDetails());
-                    eventQueue.add(new Eviction<>(expiredRecord, Eviction.Type.EXPIRY, timer.getCurrentTime()));
+    private int weigh(final KEY key, final VALUE value) {
+        return weigher == null ? 1 : weigher.weigh(key, value);
+    }
+
+    public void cleanUp() {
+        for (final Segment segment : segments) {
+            segment.cleanUp();
+        }
+        if (diskTier != null) {
+            diskTier.compact(timer.getCurrentTime());
+        }
+    }
+
+    public void snapshot() {
+        if (snapshot == null) {
+            throw new IllegalStateException("No snapshot file configured");
+        }
+        final List<Record<KEY, VALUE>> records = new ArrayList<>();
+        for (final Segment segment : segments) {
+            segment.cleanUp();
+            segment.collectResidentRecords(records);
+        }
+        records.sort(Comparator.comparingLong(record -> record.getAccessDetails().getLastAccessTime()));
+        snapshot.write(records, timer.getCurrentTime());
+    }
+
+    public CompletionStage<Void> shutdown() {
+        return writeBehindBuffer.flushAll().whenComplete((__, throwable) -> {
+            try {
+                if (snapshot != null) {
+                    snapshot();
+                }
+            } finally {
+                if (nearCache != null) {
+                    nearCache.close();
+                }
+                scheduler.shutdown();
+                shutdownLanes();
+                if (mailboxes != null) {
+                    mailboxes.shutdown();
+                }
+                if (diskTier != null) {
+                    diskTier.close();
                 }
             }
+        });
+    }
+
+    private CompletionStage<Void> persistRecord(final Record<KEY, VALUE> storedRecord) {
+        final var record = detached(storedRecord);
+        if (fetchAlgorithm == FetchAlgorithm.WRITE_BACK) {
+            return writeBehindBuffer.add(record);
         }
-        if (cache.size() >= maximumSize) {
-            List<KEY> keys = priorityQueue.pollFirstEntry().getValue();
-            while (keys.isEmpty()) {
-                keys = priorityQueue.pollFirstEntry().getValue();
-            }
-            for (final KEY key : keys) {
-                final Record<KEY, VALUE> lowestPriorityRecord = cache.remove(key).toCompletableFuture().join();
-                expiryQueue.get(lowestPriorityRecord.getInsertionTime()).remove(lowestPriorityRecord.getKey());
-                eventQueue.add(new Eviction<>(lowestPriorityRecord, Eviction.Type.REPLACEMENT, timer.getCurrentTime()));
-            }
+        final long startTime = stats.isEnabled() ? System.nanoTime() : 0;
+        return dataSource.persist(record.getKey(), record.getValue(), record.getInsertionTime())
+                .thenAccept(__ -> {
+                    if (stats.isEnabled()) {
+                        stats.recordWrite(System.nanoTime() - startTime);
+                    }
+                    onWrite(record);
+                });
+    }
+
+    private Record<KEY, VALUE> detached(final Record<KEY, VALUE> record) {
+        if (!(record instanceof OffHeapRecord)) {
+            return record;
         }
+        return new Record<>(record.getKey(), record.getValue(), record.getInsertionTime(), record.getTimeToLive(), record.getWeight());
     }
 
-    private CompletionStage<Void> persistRecord(final Record<KEY, VALUE> record) {
-        return dataSource.persist(record.getKey(), record.getValue(), record.getInsertionTime())
-                .thenAccept(__ -> eventQueue.add(new Write<>(record, timer.getCurrentTime())));
+    private void onEviction(final Record<KEY, VALUE> record, final Eviction.Type type) {
+        stats.recordEviction(type);
+        eventQueue.offer(new Eviction<>(record, type, timer.getCurrentTime()));
+    }
+
+    private void onWrite(final Record<KEY, VALUE> record) {
+        eventQueue.offer(new Write<>(record, timer.getCurrentTime()));
     }
 
     private boolean hasExpired(final Record<KEY, VALUE> record) {
-        return hasExpired(record.getInsertionTime());
+        return timer.getCurrentTime() - record.getInsertionTime() > record.getTimeToLive();
     }
 
-    private boolean hasExpired(final Long time) {
-        return Duration.ofNanos(timer.getCurrentTime() - time).compareTo(expiryTime) > 0;
+    private long toNanos(final Duration timeToLive) {
+        return timeToLive.compareTo(MAXIMUM_TIME_TO_LIVE) > 0 ? MAXIMUM_TIME_TO_LIVE.toNanos() : timeToLive.toNanos();
     }
 
     public List<Event<KEY, VALUE>> getEventQueue() {
-        return eventQueue;
+        return eventQueue.asList();
+    }
+
+    public RingBuffer<Event<KEY, VALUE>>.Subscription subscribe() {
+        return eventQueue.subscribe();
     }
 
     private CompletionStage<VALUE> loadFromDB(final DataSource<KEY, VALUE> dataSource, KEY key) {
         return dataSource.load(key).whenComplete((value, throwable) -> {
             if (throwable == null) {
-                eventQueue.add(new Load<>(new Record<>(key, value, timer.getCurrentTime()), timer.getCurrentTime()));
+                onLoad(key, value);
             }
         });
     }
-}
 
+    private void onLoad(final KEY key, final VALUE value) {
+        eventQueue.offer(new Load<>(new Record<>(key, value, timer.getCurrentTime()), timer.getCurrentTime()));
+    }
+
+    private static class Lane {
+        private final ThreadPoolExecutor executor;
+        private final AtomicInteger depth;
+
+        private Lane() {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+            this.depth = new AtomicInteger();
+        }
+
+        private boolean tryAcquire(final int capacity) {
+            int current;
+            do {
+                current = depth.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!depth.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private void release() {
+            depth.decrementAndGet();
+        }
+    }
+
+    private class BulkLoad implements Function<KEY, CompletionStage<VALUE>> {
+        private final Map<KEY, CompletableFuture<VALUE>> batch = new HashMap<>();
+        private boolean dispatched;
+
+        @Override
+        public synchronized CompletionStage<VALUE> apply(final KEY key) {
+            if (dispatched) {
+                return loader.apply(key);
+            }
+            return batch.computeIfAbsent(key, __ -> new CompletableFuture<>());
+        }
+
+        private synchronized void dispatch() {
+            dispatched = true;
+            if (!batch.isEmpty()) {
+                batchLoader.loadAll(batch);
+            }
+        }
+    }
+
+    private class Segment {
+        private final int maximumSize;
+        private final long maximumWeight;
+        private volatile long weightedSize;
+        private final Map<KEY, CompletionStage<Record<KEY, VALUE>>> cache;
+        private final EvictionPolicy<KEY> evictionPolicy;
+        private final ReadBuffer<AccessDetails> readBuffer;
+        private final Queue<Runnable> writeBuffer;
+        private final Lock evictionLock;
+        private final TimerWheel<KEY> timerWheel;
+        private final Map<KEY, CompletionStage<Record<KEY, VALUE>>> refreshes;
+        private final SlabAllocator allocator;
+
+        private Segment(final int maximumSize, final long maximumWeight, final EvictionPolicy<KEY> evictionPolicy) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.cache = new ConcurrentHashMap<>();
+            this.evictionPolicy = evictionPolicy;
+            this.readBuffer = new ReadBuffer<>(accessDetails -> evictionPolicy.recordAccess(accessDetails, timer.getCurrentTime()));
+            this.writeBuffer = new ConcurrentLinkedQueue<>();
+            this.evictionLock = new ReentrantLock();
+            this.timerWheel = new TimerWheel<>(timer.getCurrentTime(), this::expire);
+            this.refreshes = new ConcurrentHashMap<>();
+            this.allocator = serializer == null ? null : new SlabAllocator();
+        }
+
+        private void cleanUp() {
+            evictionLock.lock();
+            try {
+                drainBuffers();
+                timerWheel.advance(timer.getCurrentTime());
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        private Record<KEY, VALUE> getIfPresent(final KEY key) {
+            final var storedRecord = cache.get(key);
+            final var record = residentRecord(storedRecord);
+            if (record == null || hasExpired(record)) {
+                stats.recordMiss();
+                return null;
+            }
+            afterRead(record);
+            refreshIfStale(key, storedRecord, record);
+            if (allocator == null) {
+                stats.recordHit();
+                return record;
+            }
+            final var onHeapRecord = detached(record);
+            if (onHeapRecord.getValue() == null) {
+                stats.recordMiss();
+                return null;
+            }
+            stats.recordHit();
+            return onHeapRecord;
+        }
+
+        private VALUE getStaleValue(final KEY key) {
+            final var record = residentRecord(cache.get(key));
+            return record == null ? null : record.getValue();
+        }
+
+        private Record<KEY, VALUE> newRecord(final KEY key, final VALUE value, final long timeToLive) {
+            return newRecord(key, value, timer.getCurrentTime(), timeToLive);
+        }
+
+        private Record<KEY, VALUE> newRecord(final KEY key, final VALUE value, final long insertionTime, final long timeToLive) {
+            if (allocator == null) {
+                return new Record<>(key, value, insertionTime, timeToLive, weigh(key, value));
+            }
+            final long handle = allocator.allocate(serializer.serialize(value));
+            return new OffHeapRecord<>(key, handle, allocator, serializer::deserialize, insertionTime, timeToLive, weigh(key, value));
+        }
+
+        private void restore(final Record<KEY, VALUE> snapshotted) {
+            final long timeToLive = Math.min(snapshotted.getTimeToLive(), toNanos(expiryTime));
+            if (timer.getCurrentTime() - snapshotted.getInsertionTime() > timeToLive) {
+                return;
+            }
+            final var record = newRecord(snapshotted.getKey(), snapshotted.getValue(), snapshotted.getInsertionTime(), timeToLive);
+            final var accessDetails = snapshotted.getAccessDetails();
+            evictionLock.lock();
+            try {
+                if (cache.putIfAbsent(record.getKey(), CompletableFuture.completedFuture(record)) != null) {
+                    if (record instanceof OffHeapRecord) {
+                        ((OffHeapRecord<KEY, VALUE>) record).release();
+                    }
+                    return;
+                }
+                drainBuffers();
+                addToQueues(record);
+                for (int i = 0; i < Math.min(accessDetails.getAccessCount(), MAXIMUM_RESTORED_ACCESSES); i++) {
+                    evictionPolicy.recordAccess(record.getAccessDetails(), accessDetails.getLastAccessTime());
+                }
+                if (cache.size() > maximumSize) {
+                    evictLowestPriority();
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        private void collectResidentRecords(final List<Record<KEY, VALUE>> records) {
+            for (final CompletionStage<Record<KEY, VALUE>> storedRecord : cache.values()) {
+                final var record = residentRecord(storedRecord);
+                if (record != null && !hasExpired(record)) {
+                    final var onHeapRecord = detached(record);
+                    if (onHeapRecord.getValue() != null) {
+                        records.add(onHeapRecord);
+                    }
+                }
+            }
+        }
+
+        private void collectResidentEntries(final Predicate<KEY> filter, final Map<KEY, VALUE> entries) {
+            for (final Map.Entry<KEY, CompletionStage<Record<KEY, VALUE>>> entry : cache.entrySet()) {
+                final var record = residentRecord(entry.getValue());
+                if (record != null && !hasExpired(record) && filter.test(entry.getKey())) {
+                    final var value = record.getValue();
+                    if (value != null) {
+                        entries.put(entry.getKey(), value);
+                    }
+                }
+            }
+        }
+
+        private CompletionStage<Void> install(final KEY key, final VALUE value) {
+            final var recordFuture = new CompletableFuture<Record<KEY, VALUE>>();
+            if (cache.putIfAbsent(key, recordFuture) != null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return completeRecord(key, recordFuture, CompletableFuture.completedFuture(value), expiryTime, currentVersion(key)).thenApply(__ -> null);
+        }
+
+        private void release(final Record<KEY, VALUE> record) {
+            weightedSize -= record.getWeight();
+            if (record instanceof OffHeapRecord) {
+                ((OffHeapRecord<KEY, VALUE>) record).release();
+            }
+        }
+
+        private void refreshIfStale(final KEY key, final CompletionStage<Record<KEY, VALUE>> storedRecord, final Record<KEY, VALUE> record) {
+            if (refreshAfterWrite == 0 || timer.getCurrentTime() - record.getInsertionTime() <= refreshAfterWrite || refreshes.containsKey(key)) {
+                return;
+            }
+            final var refresh = new CompletableFuture<Record<KEY, VALUE>>();
+            if (refreshes.putIfAbsent(key, refresh) != null) {
+                return;
+            }
+            if (!refreshLimiter.tryAcquire(timer.getCurrentTime())) {
+                refreshes.remove(key, refresh);
+                return;
+            }
+            final Version version = currentVersion(key);
+            load(key, loader).whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    final var refreshed = newRecord(key, value, record.getTimeToLive());
+                    refresh.complete(refreshed);
+                    evictionLock.lock();
+                    try {
+                        if (cache.replace(key, storedRecord, refresh)) {
+                            drainBuffers();
+                            removeFromQueues(record);
+                            addToQueues(refreshed);
+                        } else if (refreshed instanceof OffHeapRecord) {
+                            ((OffHeapRecord<KEY, VALUE>) refreshed).release();
+                        }
+                    } finally {
+                        evictionLock.unlock();
+                    }
+                    revalidate(key, version);
+                }
+                refreshes.remove(key, refresh);
+            });
+        }
+
+        private CompletionStage<VALUE> getFromCache(KEY key, Function<KEY, CompletionStage<VALUE>> loader) {
+            return getOrLoad(key, loader).thenApply(record -> {
+                afterRead(record);
+                return record.getValue();
+            });
+        }
+
+        private CompletionStage<Record<KEY, VALUE>> getOrLoad(final KEY key, final Function<KEY, CompletionStage<VALUE>> loader) {
+            while (true) {
+                final var storedRecord = cache.get(key);
+                final var recordFuture = new CompletableFuture<Record<KEY, VALUE>>();
+                if (storedRecord == null) {
+                    if (cache.putIfAbsent(key, recordFuture) == null) {
+                        return loadRecord(key, recordFuture, loader);
+                    }
+                    continue;
+                }
+                final var record = residentRecord(storedRecord);
+                if (record == null) {
+                    return storedRecord.thenCompose(loaded -> hasExpired(loaded) ? getOrLoad(key, loader) : CompletableFuture.completedFuture(loaded));
+                }
+                if (!hasExpired(record)) {
+                    refreshIfStale(key, storedRecord, record);
+                    return storedRecord;
+                }
+                if (cache.replace(key, storedRecord, recordFuture)) {
+                    afterWrite(() -> removeFromQueues(record));
+                    onEviction(detached(record), Eviction.Type.EXPIRY);
+                    return loadRecord(key, recordFuture, loader);
+                }
+            }
+        }
+
+        private CompletionStage<Record<KEY, VALUE>> loadRecord(final KEY key,
+                                                               final CompletableFuture<Record<KEY, VALUE>> recordFuture,
+                                                               final Function<KEY, CompletionStage<VALUE>> loader) {
+            final Version version = currentVersion(key);
+            final var demoted = diskTier == null ? null : diskTier.remove(key);
+            if (demoted != null && demoted.getExpirationTime() > timer.getCurrentTime()) {
+                final var value = diskSerializer.deserialize(demoted.getValue());
+                return completeRecord(key, recordFuture, CompletableFuture.completedFuture(value),
+                        Duration.ofNanos(demoted.getExpirationTime() - timer.getCurrentTime()), version);
+            }
+            return completeRecord(key, recordFuture, load(key, loader), expiryTime, version);
+        }
+
+        private Version currentVersion(final KEY key) {
+            return nearCache == null ? Version.INITIAL : nearCache.currentVersion(key);
+        }
+
+        private void revalidate(final KEY key, final Version version) {
+            if (nearCache != null && !nearCache.isCurrent(key, version)) {
+                invalidate(key);
+            }
+        }
+
+        private void invalidate(final KEY key) {
+            if (diskTier != null) {
+                diskTier.remove(key);
+            }
+            final var storedRecord = cache.get(key);
+            final var record = residentRecord(storedRecord);
+            if (record != null && cache.remove(key, storedRecord)) {
+                afterWrite(() -> removeFromQueues(record));
+                onEviction(detached(record), Eviction.Type.INVALIDATION);
+            }
+        }
+
+        private CompletionStage<VALUE> load(final KEY key, final Function<KEY, CompletionStage<VALUE>> loader) {
+            final var pendingWrite = writeBehindBuffer.pendingRecord(key);
+            if (pendingWrite != null) {
+                return CompletableFuture.completedFuture(pendingWrite.getValue());
+            }
+            final long startTime = stats.isEnabled() ? System.nanoTime() : 0;
+            final CompletionStage<VALUE> value;
+            try {
+                value = loader.apply(key);
+            } catch (RuntimeException exception) {
+                if (stats.isEnabled()) {
+                    stats.recordLoad(false, System.nanoTime() - startTime);
+                }
+                return CompletableFuture.failedFuture(exception);
+            }
+            if (!stats.isEnabled()) {
+                return value;
+            }
+            return value.whenComplete((__, throwable) -> stats.recordLoad(throwable == null, System.nanoTime() - startTime));
+        }
+
+        private CompletionStage<Void> setInCache(KEY key, VALUE value, Duration timeToLive) {
+            CompletionStage<Void> result = CompletableFuture.completedFuture(null);
+            final Version version = nearCache == null ? Version.INITIAL : nearCache.stamp(key);
+            if (diskTier != null) {
+                diskTier.remove(key);
+            }
+            final var oldRecordFuture = cache.remove(key);
+            if (oldRecordFuture != null) {
+                result = oldRecordFuture
+                        .thenAccept(oldRecord -> {
+                            afterWrite(() -> removeFromQueues(oldRecord));
+                            if (hasExpired(oldRecord)) {
+                                onEviction(detached(oldRecord), Eviction.Type.EXPIRY);
+                            } else {
+                                eventQueue.offer(new Update<>(new Record<>(key, value, timer.getCurrentTime()), detached(oldRecord), timer.getCurrentTime()));
+                            }
+                        });
+            }
+            final var write = result.thenCompose(__ -> addToCache(key, CompletableFuture.completedFuture(value), timeToLive, version))
+                    .thenCompose(Cache.this::persistRecord);
+            if (nearCache == null) {
+                return write;
+            }
+            return write.whenComplete((__, throwable) -> nearCache.publish(key, version));
+        }
+
+        private CompletionStage<Record<KEY, VALUE>> addToCache(final KEY key,
+                                                               final CompletionStage<VALUE> valueFuture,
+                                                               final Duration timeToLive,
+                                                               final Version version) {
+            final var recordFuture = new CompletableFuture<Record<KEY, VALUE>>();
+            cache.put(key, recordFuture);
+            return completeRecord(key, recordFuture, valueFuture, timeToLive, version);
+        }
+
+        private CompletionStage<Record<KEY, VALUE>> completeRecord(final KEY key,
+                                                                   final CompletableFuture<Record<KEY, VALUE>> recordFuture,
+                                                                   final CompletionStage<VALUE> valueFuture,
+                                                                   final Duration timeToLive,
+                                                                   final Version version) {
+            manageEntries();
+            valueFuture.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    cache.remove(key, recordFuture);
+                    recordFuture.completeExceptionally(throwable);
+                } else {
+                    final var record = newRecord(key, value, toNanos(timeToLive));
+                    if (record.getWeight() > maximumWeight) {
+                        reject(key, recordFuture, record);
+                        return;
+                    }
+                    cache.replace(key, recordFuture, CompletableFuture.completedFuture(record));
+                    afterWrite(() -> addToQueues(record));
+                    recordFuture.complete(record);
+                    revalidate(key, version);
+                }
+            });
+            return recordFuture;
+        }
+
+        private void reject(final KEY key, final CompletableFuture<Record<KEY, VALUE>> recordFuture, final Record<KEY, VALUE> record) {
+            cache.remove(key, recordFuture);
+            final var rejected = detached(record);
+            if (record instanceof OffHeapRecord) {
+                ((OffHeapRecord<KEY, VALUE>) record).release();
+            }
+            recordFuture.complete(rejected);
+            onEviction(rejected, Eviction.Type.REPLACEMENT);
+        }
+
+        private void addToQueues(final Record<KEY, VALUE> record) {
+            record.setAccessDetails(evictionPolicy.admit(record.getKey(), record.getInsertionTime()));
+            timerWheel.schedule(record.getAccessDetails(), record.getExpirationTime());
+            weightedSize += record.getWeight();
+            while (weightedSize > maximumWeight) {
+                if (!evictLowestPriority()) {
+                    break;
+                }
+            }
+        }
+
+        private void removeFromQueues(final Record<KEY, VALUE> record) {
+            evictionPolicy.remove(record.getAccessDetails());
+            timerWheel.cancel(record.getAccessDetails());
+            release(record);
+        }
+
+        private void expire(final KEY key, final AccessDetails accessDetails) {
+            final var storedRecord = cache.get(key);
+            final var record = residentRecord(storedRecord);
+            if (record != null && record.getAccessDetails() == accessDetails && cache.remove(key, storedRecord)) {
+                evictionPolicy.remove(accessDetails);
+                onEviction(detached(record), Eviction.Type.EXPIRY);
+                release(record);
+            }
+        }
+
+        private Record<KEY, VALUE> residentRecord(final CompletionStage<Record<KEY, VALUE>> storedRecord) {
+            if (storedRecord == null) {
+                return null;
+            }
+            final var recordFuture = storedRecord.toCompletableFuture();
+            if (!recordFuture.isDone() || recordFuture.isCompletedExceptionally()) {
+                return null;
+            }
+            return recordFuture.join();
+        }
+
+        private void afterRead(final Record<KEY, VALUE> record) {
+            if (readBuffer.offer(record.getAccessDetails()) && evictionLock.tryLock()) {
+                try {
+                    drainBuffers();
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+        }
+
+        private void afterWrite(final Runnable task) {
+            writeBuffer.add(task);
+            if (evictionLock.tryLock()) {
+                try {
+                    drainBuffers();
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+        }
+
+        private void drainBuffers() {
+            readBuffer.drain();
+            Runnable task;
+            while ((task = writeBuffer.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void manageEntries() {
+            evictionLock.lock();
+            try {
+                drainBuffers();
+                timerWheel.advance(timer.getCurrentTime());
+                if (cache.size() > maximumSize) {
+                    evictLowestPriority();
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        private boolean evictLowestPriority() {
+            final KEY key = evictionPolicy.evict();
+            if (key == null) {
+                return false;
+            }
+            final var storedRecord = cache.get(key);
+            final var lowestPriorityRecord = residentRecord(storedRecord);
+            if (lowestPriorityRecord != null && cache.remove(key, storedRecord)) {
+                timerWheel.cancel(lowestPriorityRecord.getAccessDetails());
+                final var evicted = detached(lowestPriorityRecord);
+                onEviction(evicted, Eviction.Type.REPLACEMENT);
+                if (diskTier != null && evicted.getValue() != null) {
+                    diskTier.put(key, diskSerializer.serialize(evicted.getValue()), evicted.getExpirationTime());
+                }
+                release(lowestPriorityRecord);
+            }
+            return true;
+        }
+    }
+}
@@ -1,20 +1,56 @@
+import algorithms.EvictionPolicy;
+import algorithms.LeastFrequentlyUsed;
+import algorithms.LeastRecentlyUsed;
+import algorithms.WindowTinyLfu;
+import lib.SegmentFileStore;
 import models.EvictionAlgorithm;
+import models.ExecutionMode;
 import models.FetchAlgorithm;
+import models.OverflowPolicy;
+import models.OverloadPolicy;
 import models.Timer;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
 
 public class CacheBuilder<KEY, VALUE> {
-    private int maximumSize;
-    private Duration expiryTime;
-    private final Set<KEY> onStartLoad;
-    private EvictionAlgorithm evictionAlgorithm;
-    private FetchAlgorithm fetchAlgorithm;
-    private DataSource<KEY, VALUE> dataSource;
-    private Timer timer;
-    private int poolSize;
+    private static final int MINIMUM_DISK_SEGMENT = 1 << 12, MAXIMUM_DISK_SEGMENT = 1 << 26;
+    int maximumSize;
+    long maximumWeight;
+    Weigher<KEY, VALUE> weigher;
+    Duration expiryTime;
+    final Set<KEY> onStartLoad;
+    EvictionAlgorithm evictionAlgorithm;
+    FetchAlgorithm fetchAlgorithm;
+    DataSource<KEY, VALUE> dataSource;
+    Timer timer;
+    int poolSize;
+    int segments;
+    Duration cleanUpInterval;
+    Duration batchLoadWindow;
+    int maximumBatchSize;
+    Duration writeBackDelay;
+    int writeBackBatchSize;
+    int writeBackCapacity;
+    Duration refreshAfterWrite;
+    int maximumRefreshRate;
+    int eventQueueCapacity;
+    OverflowPolicy overflowPolicy;
+    Serializer<VALUE> serializer;
+    Path diskDirectory;
+    long maximumDiskSize;
+    Serializer<VALUE> diskSerializer;
+    Snapshot<KEY, VALUE> snapshot;
+    boolean recordStats;
+    String nodeId;
+    InvalidationTransport<KEY> transport;
+    Duration invalidationBatchWindow;
+    ExecutionMode executionMode;
+    int maximumPoolSize;
+    int laneCapacity;
+    OverloadPolicy overloadPolicy;
 
     public CacheBuilder() {
         maximumSize = 1000;
@@ -23,6 +59,21 @@ public class CacheBuilder<KEY, VALUE> {
         evictionAlgorithm = EvictionAlgorithm.LRU;
         onStartLoad = new HashSet<>();
         poolSize = 1;
+        segments = 1;
+        cleanUpInterval = Duration.ofSeconds(1);
+        batchLoadWindow = Duration.ZERO;
+        maximumBatchSize = 100;
+        writeBackDelay = Duration.ZERO;
+        writeBackBatchSize = 100;
+        writeBackCapacity = 10_000;
+        refreshAfterWrite = Duration.ZERO;
+        maximumRefreshRate = 100;
+        eventQueueCapacity = 1 << 16;
+        overflowPolicy = OverflowPolicy.OVERWRITE;
+        invalidationBatchWindow = Duration.ZERO;
+        executionMode = ExecutionMode.FIXED_POOL;
+        laneCapacity = Integer.MAX_VALUE;
+        overloadPolicy = OverloadPolicy.REJECT;
         timer = new Timer();
     }
 
@@ -31,6 +82,16 @@ public class CacheBuilder<KEY, VALUE> {
         return this;
     }
 
+    public CacheBuilder<KEY, VALUE> maximumWeight(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> weigher(final Weigher<KEY, VALUE> weigher) {
+        this.weigher = weigher;
+        return this;
+    }
+
     public CacheBuilder<KEY, VALUE> expiryTime(final Duration expiryTime) {
         this.expiryTime = expiryTime;
         return this;
@@ -66,10 +127,161 @@ public class CacheBuilder<KEY, VALUE> {
         return this;
     }
 
+    public CacheBuilder<KEY, VALUE> segments(final int segments) {
+        this.segments = segments;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> cleanUpInterval(final Duration cleanUpInterval) {
+        this.cleanUpInterval = cleanUpInterval;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> batchLoadWindow(final Duration batchLoadWindow) {
+        this.batchLoadWindow = batchLoadWindow;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> maximumBatchSize(final int maximumBatchSize) {
+        this.maximumBatchSize = maximumBatchSize;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> writeBackDelay(final Duration writeBackDelay) {
+        this.writeBackDelay = writeBackDelay;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> writeBackBatchSize(final int writeBackBatchSize) {
+        this.writeBackBatchSize = writeBackBatchSize;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> writeBackCapacity(final int writeBackCapacity) {
+        this.writeBackCapacity = writeBackCapacity;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> refreshAfterWrite(final Duration refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> maximumRefreshRate(final int refreshesPerSecond) {
+        this.maximumRefreshRate = refreshesPerSecond;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> eventQueueCapacity(final int eventQueueCapacity) {
+        this.eventQueueCapacity = eventQueueCapacity;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> overflowPolicy(final OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> offHeap(final Serializer<VALUE> serializer) {
+        this.serializer = serializer;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> diskTier(final Path directory, final long maximumDiskSize, final Serializer<VALUE> serializer) {
+        this.diskDirectory = directory;
+        this.maximumDiskSize = maximumDiskSize;
+        this.diskSerializer = serializer;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> snapshot(final Path file, final Serializer<KEY> keySerializer, final Serializer<VALUE> valueSerializer) {
+        this.snapshot = new Snapshot<>(file, keySerializer, valueSerializer);
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> recordStats() {
+        this.recordStats = true;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> cluster(final String nodeId, final InvalidationTransport<KEY> transport) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> invalidationBatchWindow(final Duration invalidationBatchWindow) {
+        this.invalidationBatchWindow = invalidationBatchWindow;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> executionMode(final ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> maximumPoolSize(final int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> laneCapacity(final int laneCapacity) {
+        this.laneCapacity = laneCapacity;
+        return this;
+    }
+
+    public CacheBuilder<KEY, VALUE> overloadPolicy(final OverloadPolicy overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+        return this;
+    }
+
     public Cache<KEY, VALUE> build() {
         if (dataSource == null) {
             throw new IllegalArgumentException("No datasource configured");
         }
-        return new Cache<>(maximumSize, expiryTime, fetchAlgorithm, evictionAlgorithm, dataSource, onStartLoad, timer, poolSize);
+        if (segments < 1) {
+            throw new IllegalArgumentException("At least one segment is required");
+        }
+        if (batchLoadWindow.isNegative() || maximumBatchSize < 1) {
+            throw new IllegalArgumentException("Batch loading needs a non-negative window and a positive batch size");
+        }
+        if (writeBackDelay.isNegative() || writeBackBatchSize < 1 || writeBackCapacity < 1) {
+            throw new IllegalArgumentException("Write back needs a non-negative delay, a positive batch size and a positive capacity");
+        }
+        if (refreshAfterWrite.isNegative() || maximumRefreshRate < 1) {
+            throw new IllegalArgumentException("Refresh needs a non-negative duration and a positive rate");
+        }
+        if ((weigher == null) != (maximumWeight == 0) || maximumWeight < 0) {
+            throw new IllegalArgumentException("A maximum weight needs a weigher and a weigher needs a positive maximum weight");
+        }
+        if (weigher != null && maximumWeight < segments) {
+            throw new IllegalArgumentException("A maximum weight needs at least one unit per segment");
+        }
+        if (poolSize < 0 || maximumPoolSize < 0 || laneCapacity < 1) {
+            throw new IllegalArgumentException("The executor pool needs non-negative sizes and a positive lane capacity");
+        }
+        if (eventQueueCapacity < 1) {
+            throw new IllegalArgumentException("The event queue needs a positive capacity");
+        }
+        if ((transport == null) != (nodeId == null) || invalidationBatchWindow.isNegative()) {
+            throw new IllegalArgumentException("A cluster needs a node id, a transport and a non-negative invalidation window");
+        }
+        if (diskDirectory != null && (maximumDiskSize < MINIMUM_DISK_SEGMENT || diskSerializer == null)) {
+            throw new IllegalArgumentException("The disk tier needs a serializer and at least " + MINIMUM_DISK_SEGMENT + " bytes");
+        }
+        final SegmentFileStore<KEY> diskTier = diskDirectory == null ? null
+                : new SegmentFileStore<>(diskDirectory, (int) Math.min(MAXIMUM_DISK_SEGMENT, Math.max(MINIMUM_DISK_SEGMENT, maximumDiskSize / 8)), maximumDiskSize);
+        return new Cache<>(this, diskTier);
+    }
+
+    EvictionPolicy<KEY> evictionPolicy(final int maximumSize) {
+        switch (evictionAlgorithm) {
+            case LFU:
+                return new LeastFrequentlyUsed<>();
+            case W_TINY_LFU:
+                return new WindowTinyLfu<>(maximumSize);
+            default:
+                return new LeastRecentlyUsed<>();
+        }
     }
 }
@@ -0,0 +1,20 @@
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+
+public interface CacheShard<KEY, VALUE> {
+    CompletionStage<VALUE> get(KEY key);
+
+    CompletionStage<VALUE> getIfPresent(KEY key);
+
+    CompletionStage<Map<KEY, VALUE>> getAll(Collection<KEY> keys);
+
+    CompletionStage<Void> set(KEY key, VALUE value);
+
+    CompletionStage<Map<KEY, VALUE>> export(Predicate<KEY> filter);
+
+    CompletionStage<Void> importAll(Map<KEY, VALUE> entries);
+
+    CompletionStage<Void> invalidateAll(Collection<KEY> keys);
+}
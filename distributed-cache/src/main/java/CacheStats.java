@@ -0,0 +1,138 @@
+import events.Eviction;
+import lib.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final Map<Eviction.Type, Long> evictionCounts;
+    private final long overloadCount;
+    private final LatencyHistogram.Snapshot loadLatency;
+    private final LatencyHistogram.Snapshot writeLatency;
+    private final int[] executorQueueDepths;
+    private final long weightedSize;
+    private final long offHeapSize;
+
+    CacheStats(final long hitCount,
+               final long missCount,
+               final long loadSuccessCount,
+               final long loadFailureCount,
+               final long totalLoadTime,
+               final Map<Eviction.Type, Long> evictionCounts,
+               final long overloadCount,
+               final LatencyHistogram.Snapshot loadLatency,
+               final LatencyHistogram.Snapshot writeLatency,
+               final int[] executorQueueDepths,
+               final long weightedSize,
+               final long offHeapSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCounts = evictionCounts;
+        this.overloadCount = overloadCount;
+        this.loadLatency = loadLatency;
+        this.writeLatency = writeLatency;
+        this.executorQueueDepths = executorQueueDepths;
+        this.weightedSize = weightedSize;
+        this.offHeapSize = offHeapSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    public double getHitRate() {
+        return getRequestCount() == 0 ? 1 : (double) hitCount / getRequestCount();
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public double getAverageLoadPenalty() {
+        final long loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0 : (double) totalLoadTime / loadCount;
+    }
+
+    public long getEvictionCount(final Eviction.Type type) {
+        return evictionCounts.get(type);
+    }
+
+    public long getOverloadCount() {
+        return overloadCount;
+    }
+
+    public LatencyHistogram.Snapshot getLoadLatency() {
+        return loadLatency;
+    }
+
+    public LatencyHistogram.Snapshot getWriteLatency() {
+        return writeLatency;
+    }
+
+    public int[] getExecutorQueueDepths() {
+        return executorQueueDepths.clone();
+    }
+
+    public int[] getHotLanes() {
+        final long totalDepth = Arrays.stream(executorQueueDepths).asLongStream().sum();
+        return IntStream.range(0, executorQueueDepths.length)
+                .filter(lane -> executorQueueDepths[lane] > 0 && (long) executorQueueDepths[lane] * executorQueueDepths.length >= 2 * totalDepth)
+                .toArray();
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public long getOffHeapSize() {
+        return offHeapSize;
+    }
+
+    public CacheStats minus(final CacheStats other) {
+        final Map<Eviction.Type, Long> evictionDeltas = new EnumMap<>(Eviction.Type.class);
+        evictionCounts.forEach((type, count) -> evictionDeltas.put(type, count - other.evictionCounts.get(type)));
+        return new CacheStats(hitCount - other.hitCount, missCount - other.missCount, loadSuccessCount - other.loadSuccessCount,
+                loadFailureCount - other.loadFailureCount, totalLoadTime - other.totalLoadTime, evictionDeltas, overloadCount - other.overloadCount,
+                loadLatency.minus(other.loadLatency), writeLatency.minus(other.writeLatency), executorQueueDepths, weightedSize, offHeapSize);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", loadSuccessCount=" + loadSuccessCount +
+                ", loadFailureCount=" + loadFailureCount +
+                ", averageLoadPenalty=" + getAverageLoadPenalty() +
+                ", evictionCounts=" + evictionCounts +
+                ", overloadCount=" + overloadCount +
+                ", loadLatency=" + loadLatency +
+                ", writeLatency=" + writeLatency +
+                ", executorQueueDepths=" + Arrays.toString(executorQueueDepths) +
+                ", weightedSize=" + weightedSize +
+                ", offHeapSize=" + offHeapSize +
+                '}';
+    }
+}
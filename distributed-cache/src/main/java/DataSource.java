@@ -1,3 +1,11 @@
+import models.Record;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 public interface DataSource<KEY, VALUE> {
@@ -5,4 +13,19 @@ public interface DataSource<KEY, VALUE> {
     CompletionStage<VALUE> load(KEY key);
 
     CompletionStage<Void> persist(KEY key, VALUE value, long timestamp);
+
+    default CompletionStage<Map<KEY, VALUE>> loadAll(Set<KEY> keys) {
+        final Map<KEY, VALUE> values = Collections.synchronizedMap(new HashMap<>());
+        final var loads = keys.stream()
+                .map(key -> load(key).thenAccept(value -> values.put(key, value)).exceptionally(__ -> null).toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(loads).thenApply(__ -> values);
+    }
+
+    default CompletionStage<Void> persistAll(List<Record<KEY, VALUE>> records) {
+        final var writes = records.stream()
+                .map(record -> persist(record.getKey(), record.getValue(), record.getInsertionTime()).toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(writes);
+    }
 }
@@ -0,0 +1,38 @@
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+public class IntKeyCache<VALUE> {
+    private final LongKeyCache<VALUE> cache;
+
+    IntKeyCache(final LongKeyCache<VALUE> cache) {
+        this.cache = cache;
+    }
+
+    public CompletionStage<VALUE> get(final int key) {
+        return cache.get(key);
+    }
+
+    public VALUE getIfPresent(final int key) {
+        return cache.getIfPresent(key);
+    }
+
+    public CompletionStage<Void> set(final int key, final VALUE value) {
+        return cache.set(key, value);
+    }
+
+    public CompletionStage<Void> set(final int key, final VALUE value, final Duration timeToLive) {
+        return cache.set(key, value, timeToLive);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    public CompletionStage<Void> shutdown() {
+        return cache.shutdown();
+    }
+}
@@ -0,0 +1,12 @@
+import models.Invalidation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface InvalidationTransport<KEY> {
+    void join(String nodeId, Consumer<List<Invalidation<KEY>>> receiver);
+
+    void broadcast(String nodeId, List<Invalidation<KEY>> invalidations);
+
+    void leave(String nodeId);
+}
@@ -0,0 +1,51 @@
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+
+public class LocalShard<KEY, VALUE> implements CacheShard<KEY, VALUE> {
+    private final Cache<KEY, VALUE> cache;
+
+    public LocalShard(final Cache<KEY, VALUE> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public CompletionStage<VALUE> get(final KEY key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public CompletionStage<VALUE> getIfPresent(final KEY key) {
+        return CompletableFuture.completedFuture(cache.getIfPresent(key));
+    }
+
+    @Override
+    public CompletionStage<Map<KEY, VALUE>> getAll(final Collection<KEY> keys) {
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public CompletionStage<Void> set(final KEY key, final VALUE value) {
+        return cache.set(key, value);
+    }
+
+    @Override
+    public CompletionStage<Map<KEY, VALUE>> export(final Predicate<KEY> filter) {
+        return CompletableFuture.completedFuture(cache.getResidentEntries(filter));
+    }
+
+    @Override
+    public CompletionStage<Void> importAll(final Map<KEY, VALUE> entries) {
+        return CompletableFuture.allOf(entries.entrySet().stream()
+                .map(entry -> cache.install(entry.getKey(), entry.getValue()).toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletionStage<Void> invalidateAll(final Collection<KEY> keys) {
+        keys.forEach(cache::invalidate);
+        return CompletableFuture.completedFuture(null);
+    }
+}
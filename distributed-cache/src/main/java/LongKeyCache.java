@@ -0,0 +1,370 @@
+import algorithms.SlotEvictionPolicy;
+import algorithms.SlotTimerWheel;
+import lib.SlotReadBuffer;
+import models.FetchAlgorithm;
+import models.Record;
+import models.Timer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntFunction;
+
+public class LongKeyCache<VALUE> {
+    private static final Duration MAXIMUM_TIME_TO_LIVE = Duration.ofDays(365 * 100);
+    private static final int NONE = SlotEvictionPolicy.NONE;
+    private static final Object ABSENT = new Object();
+    private final FetchAlgorithm fetchAlgorithm;
+    private final Duration expiryTime;
+    private final Segment[] segments;
+    private final DataSource<Long, VALUE> dataSource;
+    private final ScheduledExecutorService scheduler;
+    private final WriteBehindBuffer<Long, VALUE> writeBehindBuffer;
+    private final Timer timer;
+
+    LongKeyCache(final int maximumSize,
+                 final Duration expiryTime,
+                 final FetchAlgorithm fetchAlgorithm,
+                 final IntFunction<SlotEvictionPolicy> evictionPolicy,
+                 final DataSource<Long, VALUE> dataSource,
+                 final Timer timer,
+                 final int numberOfSegments,
+                 final Duration cleanUpInterval,
+                 final Duration writeBackDelay,
+                 final int writeBackBatchSize,
+                 final int writeBackCapacity) {
+        this.expiryTime = expiryTime;
+        this.fetchAlgorithm = fetchAlgorithm;
+        this.dataSource = dataSource;
+        this.timer = timer;
+        this.segments = newSegments(numberOfSegments);
+        for (int i = 0; i < numberOfSegments; i++) {
+            final int segmentSize = Math.max(1, maximumSize / numberOfSegments + (i < maximumSize % numberOfSegments ? 1 : 0));
+            segments[i] = new Segment(segmentSize, evictionPolicy.apply(segmentSize));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "long-key-cache-clean-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::cleanUp, cleanUpInterval.toNanos(), cleanUpInterval.toNanos(), TimeUnit.NANOSECONDS);
+        this.writeBehindBuffer = new WriteBehindBuffer<>(dataSource, __ -> {
+        }, scheduler, writeBackDelay, writeBackBatchSize, writeBackCapacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Segment[] newSegments(final int numberOfSegments) {
+        return (Segment[]) new LongKeyCache<?>.Segment[numberOfSegments];
+    }
+
+    private Segment segmentFor(final long key) {
+        final int hash = Long.hashCode(key) * 0x9E3779B9;
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    public CompletionStage<VALUE> get(final long key) {
+        return segmentFor(key).getOrLoad(key);
+    }
+
+    public VALUE getIfPresent(final long key) {
+        return segmentFor(key).getIfPresent(key);
+    }
+
+    public CompletionStage<Void> set(final long key, final VALUE value) {
+        return set(key, value, expiryTime);
+    }
+
+    public CompletionStage<Void> set(final long key, final VALUE value, final Duration timeToLive) {
+        final long insertionTime = timer.getCurrentTime();
+        segmentFor(key).put(key, value, insertionTime, toNanos(timeToLive));
+        if (fetchAlgorithm == FetchAlgorithm.WRITE_BACK) {
+            return writeBehindBuffer.add(new Record<>(key, value, insertionTime));
+        }
+        return dataSource.persist(key, value, insertionTime);
+    }
+
+    public int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public void cleanUp() {
+        for (final Segment segment : segments) {
+            segment.cleanUp();
+        }
+    }
+
+    public CompletionStage<Void> shutdown() {
+        return writeBehindBuffer.flushAll().whenComplete((__, throwable) -> scheduler.shutdown());
+    }
+
+    private CompletionStage<VALUE> load(final long key) {
+        final var pendingWrite = writeBehindBuffer.pendingRecord(key);
+        if (pendingWrite != null) {
+            return CompletableFuture.completedFuture(pendingWrite.getValue());
+        }
+        try {
+            return dataSource.load(key);
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    private long toNanos(final Duration timeToLive) {
+        return timeToLive.compareTo(MAXIMUM_TIME_TO_LIVE) > 0 ? MAXIMUM_TIME_TO_LIVE.toNanos() : timeToLive.toNanos();
+    }
+
+    private class Segment {
+        private final StampedLock lock;
+        private final long[] tableKeys;
+        private final int[] tableSlots;
+        private final int tableMask;
+        private final long[] keys;
+        private final Object[] values;
+        private final int[] freeSlots;
+        private final SlotEvictionPolicy evictionPolicy;
+        private final SlotTimerWheel timerWheel;
+        private final SlotReadBuffer readBuffer;
+        private final Map<Long, CompletableFuture<VALUE>> loads;
+        private int freeSlotCount;
+
+        private Segment(final int maximumSize, final SlotEvictionPolicy evictionPolicy) {
+            final int tableSize = Integer.highestOneBit((maximumSize + maximumSize / 3 + 1) * 2 - 1);
+            this.lock = new StampedLock();
+            this.tableKeys = new long[tableSize];
+            this.tableSlots = new int[tableSize];
+            this.tableMask = tableSize - 1;
+            this.keys = new long[maximumSize];
+            this.values = new Object[maximumSize];
+            this.freeSlots = new int[maximumSize];
+            for (int slot = maximumSize - 1; slot >= 0; slot--) {
+                freeSlots[freeSlotCount++] = slot;
+            }
+            this.evictionPolicy = evictionPolicy;
+            this.timerWheel = new SlotTimerWheel(maximumSize, timer.getCurrentTime(), this::expire);
+            this.readBuffer = new SlotReadBuffer(slot -> evictionPolicy.recordAccess(slot, Long.hashCode(keys[slot])));
+            this.loads = new HashMap<>();
+        }
+
+        @SuppressWarnings("unchecked")
+        private VALUE getIfPresent(final long key) {
+            final Object value = lookup(key);
+            return value == ABSENT ? null : (VALUE) value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompletionStage<VALUE> getOrLoad(final long key) {
+            final Object value = lookup(key);
+            if (value != ABSENT) {
+                return CompletableFuture.completedFuture((VALUE) value);
+            }
+            final CompletableFuture<VALUE> load;
+            final long stamp = lock.writeLock();
+            try {
+                final int slot = residentSlot(key);
+                if (slot != NONE) {
+                    return CompletableFuture.completedFuture(valueAt(slot));
+                }
+                final var pendingLoad = loads.get(key);
+                if (pendingLoad != null) {
+                    return pendingLoad;
+                }
+                load = new CompletableFuture<>();
+                loads.put(key, load);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            load(key).whenComplete((loadedValue, throwable) -> {
+                final long loadStamp = lock.writeLock();
+                try {
+                    if (loads.remove(key, load) && throwable == null) {
+                        insert(key, loadedValue, timer.getCurrentTime(), toNanos(expiryTime));
+                    }
+                } finally {
+                    lock.unlockWrite(loadStamp);
+                }
+                if (throwable != null) {
+                    load.completeExceptionally(throwable);
+                } else {
+                    load.complete(loadedValue);
+                }
+            });
+            return load;
+        }
+
+        private void put(final long key, final VALUE value, final long insertionTime, final long timeToLive) {
+            final long stamp = lock.writeLock();
+            try {
+                if (!loads.isEmpty()) {
+                    loads.remove(key);
+                }
+                insert(key, value, insertionTime, timeToLive);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            final long stamp = lock.readLock();
+            try {
+                return keys.length - freeSlotCount;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void cleanUp() {
+            final long stamp = lock.writeLock();
+            try {
+                readBuffer.drain();
+                timerWheel.advance(timer.getCurrentTime());
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private Object lookup(final long key) {
+            final long stamp = lock.tryOptimisticRead();
+            final int slot = optimisticSlot(key);
+            final Object value = slot == NONE ? null : values[slot];
+            final long expirationTime = slot == NONE ? 0 : timerWheel.getExpirationTime(slot);
+            if (lock.validate(stamp)) {
+                if (slot == NONE) {
+                    return ABSENT;
+                }
+                if (timer.getCurrentTime() - expirationTime <= 0) {
+                    afterRead(slot);
+                    return value;
+                }
+            }
+            final long writeStamp = lock.writeLock();
+            try {
+                final int residentSlot = residentSlot(key);
+                return residentSlot == NONE ? ABSENT : values[residentSlot];
+            } finally {
+                lock.unlockWrite(writeStamp);
+            }
+        }
+
+        private void afterRead(final int slot) {
+            if (readBuffer.offer(slot)) {
+                final long stamp = lock.tryWriteLock();
+                if (stamp != 0) {
+                    try {
+                        readBuffer.drain();
+                    } finally {
+                        lock.unlockWrite(stamp);
+                    }
+                }
+            }
+        }
+
+        private int optimisticSlot(final long key) {
+            int index = homeOf(key);
+            for (int probes = 0; probes <= tableMask; probes++) {
+                final int slot = tableSlots[index];
+                if (slot == 0) {
+                    return NONE;
+                }
+                if (tableKeys[index] == key) {
+                    return slot - 1;
+                }
+                index = (index + 1) & tableMask;
+            }
+            return NONE;
+        }
+
+        private int residentSlot(final long key) {
+            final int index = indexOf(key);
+            if (index == NONE) {
+                return NONE;
+            }
+            final int slot = tableSlots[index] - 1;
+            if (timer.getCurrentTime() - timerWheel.getExpirationTime(slot) > 0) {
+                removeAt(index);
+                return NONE;
+            }
+            evictionPolicy.recordAccess(slot, Long.hashCode(key));
+            return slot;
+        }
+
+        private void expire(final int slot) {
+            final int index = indexOf(keys[slot]);
+            if (index != NONE && tableSlots[index] == slot + 1) {
+                removeAt(index);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private VALUE valueAt(final int slot) {
+            return (VALUE) values[slot];
+        }
+
+        private void insert(final long key, final VALUE value, final long insertionTime, final long timeToLive) {
+            readBuffer.drain();
+            int index = indexOf(key);
+            final int slot;
+            if (index != NONE) {
+                slot = tableSlots[index] - 1;
+                evictionPolicy.remove(slot);
+            } else {
+                if (freeSlotCount == 0) {
+                    removeAt(indexOf(keys[evictionPolicy.evict()]));
+                }
+                slot = freeSlots[--freeSlotCount];
+                index = homeOf(key);
+                while (tableSlots[index] != 0) {
+                    index = (index + 1) & tableMask;
+                }
+                tableKeys[index] = key;
+                tableSlots[index] = slot + 1;
+                keys[slot] = key;
+            }
+            values[slot] = value;
+            timerWheel.schedule(slot, insertionTime + timeToLive);
+            evictionPolicy.admit(slot, Long.hashCode(key));
+        }
+
+        private void removeAt(int index) {
+            final int slot = tableSlots[index] - 1;
+            evictionPolicy.remove(slot);
+            timerWheel.cancel(slot);
+            values[slot] = null;
+            freeSlots[freeSlotCount++] = slot;
+            int next = (index + 1) & tableMask;
+            while (tableSlots[next] != 0) {
+                if (((next - homeOf(tableKeys[next])) & tableMask) >= ((next - index) & tableMask)) {
+                    tableKeys[index] = tableKeys[next];
+                    tableSlots[index] = tableSlots[next];
+                    index = next;
+                }
+                next = (next + 1) & tableMask;
+            }
+            tableSlots[index] = 0;
+        }
+
+        private int indexOf(final long key) {
+            int index = homeOf(key);
+            while (tableSlots[index] != 0) {
+                if (tableKeys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & tableMask;
+            }
+            return NONE;
+        }
+
+        private int homeOf(final long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & tableMask;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class LoopbackShard<KEY, VALUE> implements CacheShard<KEY, VALUE> {
+    private final CacheShard<KEY, VALUE> shard;
+    private final ExecutorService executor;
+    private final AtomicLong requests;
+
+    public LoopbackShard(final CacheShard<KEY, VALUE> shard) {
+        this.shard = shard;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final var thread = new Thread(runnable, "loopback-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.requests = new AtomicLong();
+    }
+
+    @Override
+    public CompletionStage<VALUE> get(final KEY key) {
+        return call(() -> shard.get(key));
+    }
+
+    @Override
+    public CompletionStage<VALUE> getIfPresent(final KEY key) {
+        return call(() -> shard.getIfPresent(key));
+    }
+
+    @Override
+    public CompletionStage<Map<KEY, VALUE>> getAll(final Collection<KEY> keys) {
+        return call(() -> shard.getAll(keys));
+    }
+
+    @Override
+    public CompletionStage<Void> set(final KEY key, final VALUE value) {
+        return call(() -> shard.set(key, value));
+    }
+
+    @Override
+    public CompletionStage<Map<KEY, VALUE>> export(final Predicate<KEY> filter) {
+        return call(() -> shard.export(filter));
+    }
+
+    @Override
+    public CompletionStage<Void> importAll(final Map<KEY, VALUE> entries) {
+        return call(() -> shard.importAll(entries));
+    }
+
+    @Override
+    public CompletionStage<Void> invalidateAll(final Collection<KEY> keys) {
+        return call(() -> shard.invalidateAll(keys));
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    private <U> CompletionStage<U> call(final Supplier<CompletionStage<U>> request) {
+        requests.incrementAndGet();
+        return CompletableFuture.supplyAsync(request, executor).thenCompose(Function.identity());
+    }
+}
@@ -0,0 +1,38 @@
+import models.Invalidation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class LoopbackTransport<KEY> implements InvalidationTransport<KEY> {
+    private final Map<String, Consumer<List<Invalidation<KEY>>>> receivers = new ConcurrentHashMap<>();
+    private final AtomicLong broadcasts = new AtomicLong();
+
+    @Override
+    public void join(final String nodeId, final Consumer<List<Invalidation<KEY>>> receiver) {
+        if (receivers.putIfAbsent(nodeId, receiver) != null) {
+            throw new IllegalArgumentException("Node " + nodeId + " has already joined");
+        }
+    }
+
+    @Override
+    public void broadcast(final String nodeId, final List<Invalidation<KEY>> invalidations) {
+        broadcasts.incrementAndGet();
+        receivers.forEach((peer, receiver) -> {
+            if (!peer.equals(nodeId)) {
+                receiver.accept(invalidations);
+            }
+        });
+    }
+
+    @Override
+    public void leave(final String nodeId) {
+        receivers.remove(nodeId);
+    }
+
+    public long getBroadcasts() {
+        return broadcasts.get();
+    }
+}
@@ -0,0 +1,128 @@
+import models.Invalidation;
+import models.Version;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+class NearCache<KEY> {
+    private static final int MAXIMUM_BATCH_SIZE = 1000;
+    private final String nodeId;
+    private final InvalidationTransport<KEY> transport;
+    private final ScheduledExecutorService scheduler;
+    private final Duration batchWindow;
+    private final Consumer<KEY> onInvalidation;
+    private final AtomicLong clock;
+    private final Map<KEY, Version> versions;
+    private final Map<KEY, Version> pending;
+    private Version untrackedVersion;
+    private boolean flushScheduled;
+
+    NearCache(final String nodeId,
+              final InvalidationTransport<KEY> transport,
+              final ScheduledExecutorService scheduler,
+              final Duration batchWindow,
+              final int maximumTrackedKeys,
+              final Consumer<KEY> onInvalidation) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.scheduler = scheduler;
+        this.batchWindow = batchWindow;
+        this.onInvalidation = onInvalidation;
+        this.clock = new AtomicLong();
+        this.untrackedVersion = Version.INITIAL;
+        this.versions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<KEY, Version> eldest) {
+                if (size() <= maximumTrackedKeys) {
+                    return false;
+                }
+                untrackedVersion = max(untrackedVersion, eldest.getValue());
+                return true;
+            }
+        });
+        this.pending = new LinkedHashMap<>();
+        transport.join(nodeId, this::receive);
+    }
+
+    Version currentVersion(final KEY key) {
+        synchronized (versions) {
+            final Version version = versions.get(key);
+            return version == null ? untrackedVersion : version;
+        }
+    }
+
+    boolean isCurrent(final KEY key, final Version version) {
+        return currentVersion(key).compareTo(version) <= 0;
+    }
+
+    Version stamp(final KEY key) {
+        final Version version = new Version(clock.incrementAndGet(), nodeId);
+        versions.merge(key, version, NearCache::max);
+        return version;
+    }
+
+    void publish(final KEY key, final Version version) {
+        synchronized (this) {
+            pending.merge(key, version, NearCache::max);
+            if (!batchWindow.isZero() && pending.size() < MAXIMUM_BATCH_SIZE) {
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduler.schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+        }
+        flush();
+    }
+
+    void flush() {
+        final List<Invalidation<KEY>> batch = new ArrayList<>();
+        synchronized (this) {
+            flushScheduled = false;
+            pending.forEach((key, version) -> batch.add(new Invalidation<>(key, version)));
+            pending.clear();
+        }
+        if (!batch.isEmpty()) {
+            transport.broadcast(nodeId, batch);
+        }
+    }
+
+    void close() {
+        flush();
+        transport.leave(nodeId);
+    }
+
+    private void receive(final List<Invalidation<KEY>> invalidations) {
+        for (final Invalidation<KEY> invalidation : invalidations) {
+            final var version = invalidation.getVersion();
+            clock.accumulateAndGet(version.getCounter(), Math::max);
+            final boolean newer;
+            synchronized (versions) {
+                final Version current = versions.get(invalidation.getKey());
+                newer = current == null || version.compareTo(current) > 0;
+                if (current != null || version.compareTo(untrackedVersion) > 0) {
+                    if (newer) {
+                        versions.put(invalidation.getKey(), version);
+                    }
+                } else {
+                    untrackedVersion = new Version(clock.incrementAndGet(), nodeId);
+                }
+            }
+            if (newer) {
+                onInvalidation.accept(invalidation.getKey());
+            }
+        }
+    }
+
+    private static Version max(final Version first, final Version second) {
+        return first.compareTo(second) >= 0 ? first : second;
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+public class PartitionedCache<KEY, VALUE> {
+    private static final int MIGRATION_BATCH_SIZE = 256;
+    private final int virtualNodes;
+    private volatile Ring<KEY, VALUE> ring;
+    private volatile Ring<KEY, VALUE> previousRing;
+    private CompletableFuture<Void> lastMigration;
+
+    public PartitionedCache(final int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one virtual node per shard is required");
+        }
+        this.virtualNodes = virtualNodes;
+        this.ring = new Ring<>(new TreeMap<>(), new HashMap<>());
+        this.lastMigration = CompletableFuture.completedFuture(null);
+    }
+
+    public CompletionStage<VALUE> get(final KEY key) {
+        final var current = ring;
+        final var previous = previousRing;
+        final var owner = current.owner(key);
+        if (previous == null || previous.owner(key) == owner) {
+            return owner.get(key);
+        }
+        final var previousOwner = previous.owner(key);
+        return owner.getIfPresent(key).thenCompose(value -> {
+            if (value != null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            return previousOwner.getIfPresent(key).thenCompose(handedOff -> handedOff == null
+                    ? owner.get(key)
+                    : owner.importAll(Map.of(key, handedOff)).thenApply(__ -> handedOff));
+        });
+    }
+
+    public CompletionStage<Map<KEY, VALUE>> getAll(final Collection<KEY> keys) {
+        final var current = ring;
+        final var previous = previousRing;
+        final Map<CacheShard<KEY, VALUE>, List<KEY>> batches = new HashMap<>();
+        final List<CompletableFuture<Map<KEY, VALUE>>> lookups = new ArrayList<>();
+        for (final KEY key : keys) {
+            final var owner = current.owner(key);
+            if (previous == null || previous.owner(key) == owner) {
+                batches.computeIfAbsent(owner, __ -> new ArrayList<>()).add(key);
+            } else {
+                lookups.add(get(key).thenApply(value -> value == null ? Map.<KEY, VALUE>of() : Map.of(key, value))
+                        .exceptionally(__ -> Map.of())
+                        .toCompletableFuture());
+            }
+        }
+        batches.forEach((owner, batch) -> lookups.add(owner.getAll(batch).toCompletableFuture()));
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).thenApply(__ -> {
+            final Map<KEY, VALUE> values = new HashMap<>();
+            lookups.forEach(lookup -> values.putAll(lookup.join()));
+            return values;
+        });
+    }
+
+    public CompletionStage<Void> set(final KEY key, final VALUE value) {
+        final var owner = ring.owner(key);
+        final var previous = previousRing;
+        final var write = owner.set(key, value);
+        if (previous == null || previous.owner(key) == owner) {
+            return write;
+        }
+        return write.thenCompose(__ -> previous.owner(key).invalidateAll(List.of(key)));
+    }
+
+    public synchronized CompletionStage<Void> addShard(final String shardId, final CacheShard<KEY, VALUE> shard) {
+        return lastMigration = lastMigration.exceptionally(__ -> null).thenCompose(__ -> {
+            if (ring.shards.containsKey(shardId)) {
+                throw new IllegalArgumentException("Shard " + shardId + " already exists");
+            }
+            final var shards = new HashMap<>(ring.shards);
+            shards.put(shardId, shard);
+            return rebalance(shards, ring.shards.values());
+        }).toCompletableFuture();
+    }
+
+    public synchronized CompletionStage<Void> removeShard(final String shardId) {
+        return lastMigration = lastMigration.exceptionally(__ -> null).thenCompose(__ -> {
+            final var removed = ring.shards.get(shardId);
+            if (removed == null) {
+                throw new IllegalArgumentException("Unknown shard " + shardId);
+            }
+            final var shards = new HashMap<>(ring.shards);
+            shards.remove(shardId);
+            return rebalance(shards, List.of(removed));
+        }).toCompletableFuture();
+    }
+
+    public int getShardCount() {
+        return ring.shards.size();
+    }
+
+    private CompletionStage<Void> rebalance(final Map<String, CacheShard<KEY, VALUE>> shards, final Collection<CacheShard<KEY, VALUE>> sources) {
+        final NavigableMap<Long, CacheShard<KEY, VALUE>> positions = new TreeMap<>();
+        shards.forEach((shardId, shard) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                positions.put(mix((long) shardId.hashCode() << 32 | i), shard);
+            }
+        });
+        final var target = new Ring<>(positions, shards);
+        previousRing = ring.shards.isEmpty() ? null : ring;
+        ring = target;
+        CompletionStage<Void> migration = CompletableFuture.completedFuture(null);
+        for (final CacheShard<KEY, VALUE> source : sources) {
+            migration = migration.thenCompose(__ -> source.export(key -> target.shards.isEmpty() || target.owner(key) != source))
+                    .thenCompose(entries -> migrate(source, target, new ArrayList<>(entries.entrySet()), 0));
+        }
+        return migration.whenComplete((__, throwable) -> previousRing = null);
+    }
+
+    private CompletionStage<Void> migrate(final CacheShard<KEY, VALUE> source,
+                                          final Ring<KEY, VALUE> target,
+                                          final List<Map.Entry<KEY, VALUE>> entries,
+                                          final int from) {
+        if (from >= entries.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var batch = entries.subList(from, Math.min(entries.size(), from + MIGRATION_BATCH_SIZE));
+        final Map<CacheShard<KEY, VALUE>, Map<KEY, VALUE>> byOwner = new HashMap<>();
+        final List<KEY> moved = new ArrayList<>(batch.size());
+        for (final Map.Entry<KEY, VALUE> entry : batch) {
+            if (!target.shards.isEmpty()) {
+                byOwner.computeIfAbsent(target.owner(entry.getKey()), __ -> new HashMap<>()).put(entry.getKey(), entry.getValue());
+            }
+            moved.add(entry.getKey());
+        }
+        final var imports = byOwner.entrySet().stream()
+                .map(owner -> owner.getKey().importAll(owner.getValue()).toCompletableFuture())
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(imports)
+                .thenCompose(__ -> source.invalidateAll(moved))
+                .thenCompose(__ -> migrate(source, target, entries, from + MIGRATION_BATCH_SIZE));
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    private static class Ring<KEY, VALUE> {
+        private final NavigableMap<Long, CacheShard<KEY, VALUE>> positions;
+        private final Map<String, CacheShard<KEY, VALUE>> shards;
+
+        private Ring(final NavigableMap<Long, CacheShard<KEY, VALUE>> positions, final Map<String, CacheShard<KEY, VALUE>> shards) {
+            this.positions = Collections.unmodifiableNavigableMap(positions);
+            this.shards = Collections.unmodifiableMap(shards);
+        }
+
+        private CacheShard<KEY, VALUE> owner(final KEY key) {
+            if (positions.isEmpty()) {
+                throw new IllegalStateException("No shards in the cluster");
+            }
+            final var entry = positions.ceilingEntry(mix(key.hashCode()));
+            return entry == null ? positions.firstEntry().getValue() : entry.getValue();
+        }
+    }
+}
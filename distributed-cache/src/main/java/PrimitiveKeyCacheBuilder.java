@@ -0,0 +1,128 @@
+import algorithms.SlotEvictionPolicy;
+import algorithms.SlotLeastFrequentlyUsed;
+import algorithms.SlotLeastRecentlyUsed;
+import algorithms.SlotWindowTinyLfu;
+import models.EvictionAlgorithm;
+import models.FetchAlgorithm;
+import models.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+public class PrimitiveKeyCacheBuilder<VALUE> {
+    private int maximumSize;
+    private Duration expiryTime;
+    private EvictionAlgorithm evictionAlgorithm;
+    private FetchAlgorithm fetchAlgorithm;
+    private Timer timer;
+    private int segments;
+    private Duration cleanUpInterval;
+    private Duration writeBackDelay;
+    private int writeBackBatchSize;
+    private int writeBackCapacity;
+
+    public PrimitiveKeyCacheBuilder() {
+        maximumSize = 1000;
+        expiryTime = Duration.ofDays(365);
+        fetchAlgorithm = FetchAlgorithm.WRITE_THROUGH;
+        evictionAlgorithm = EvictionAlgorithm.LRU;
+        segments = 1;
+        cleanUpInterval = Duration.ofSeconds(1);
+        writeBackDelay = Duration.ZERO;
+        writeBackBatchSize = 100;
+        writeBackCapacity = 10_000;
+        timer = new Timer();
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> maximumSize(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> expiryTime(final Duration expiryTime) {
+        this.expiryTime = expiryTime;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> evictionAlgorithm(final EvictionAlgorithm evictionAlgorithm) {
+        this.evictionAlgorithm = evictionAlgorithm;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> fetchAlgorithm(final FetchAlgorithm fetchAlgorithm) {
+        this.fetchAlgorithm = fetchAlgorithm;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> timer(final Timer timer) {
+        this.timer = timer;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> segments(final int segments) {
+        this.segments = segments;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> cleanUpInterval(final Duration cleanUpInterval) {
+        this.cleanUpInterval = cleanUpInterval;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> writeBackDelay(final Duration writeBackDelay) {
+        this.writeBackDelay = writeBackDelay;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> writeBackBatchSize(final int writeBackBatchSize) {
+        this.writeBackBatchSize = writeBackBatchSize;
+        return this;
+    }
+
+    public PrimitiveKeyCacheBuilder<VALUE> writeBackCapacity(final int writeBackCapacity) {
+        this.writeBackCapacity = writeBackCapacity;
+        return this;
+    }
+
+    public LongKeyCache<VALUE> buildLongKeyed(final DataSource<Long, VALUE> dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("No datasource configured");
+        }
+        if (maximumSize < 1 || segments < 1) {
+            throw new IllegalArgumentException("A primitive key cache needs a positive maximum size and at least one segment");
+        }
+        if (writeBackDelay.isNegative() || writeBackBatchSize < 1 || writeBackCapacity < 1) {
+            throw new IllegalArgumentException("Write back needs a non-negative delay, a positive batch size and a positive capacity");
+        }
+        return new LongKeyCache<>(maximumSize, expiryTime, fetchAlgorithm, this::evictionPolicy, dataSource, timer, segments,
+                cleanUpInterval, writeBackDelay, writeBackBatchSize, writeBackCapacity);
+    }
+
+    public IntKeyCache<VALUE> buildIntKeyed(final DataSource<Integer, VALUE> dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("No datasource configured");
+        }
+        return new IntKeyCache<>(buildLongKeyed(new DataSource<>() {
+            @Override
+            public CompletionStage<VALUE> load(final Long key) {
+                return dataSource.load(key.intValue());
+            }
+
+            @Override
+            public CompletionStage<Void> persist(final Long key, final VALUE value, final long timestamp) {
+                return dataSource.persist(key.intValue(), value, timestamp);
+            }
+        }));
+    }
+
+    private SlotEvictionPolicy evictionPolicy(final int maximumSize) {
+        switch (evictionAlgorithm) {
+            case LFU:
+                return new SlotLeastFrequentlyUsed(maximumSize);
+            case W_TINY_LFU:
+                return new SlotWindowTinyLfu(maximumSize);
+            default:
+                return new SlotLeastRecentlyUsed(maximumSize);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+public interface Serializer<VALUE> {
+
+    byte[] serialize(VALUE value);
+
+    VALUE deserialize(byte[] bytes);
+}
@@ -0,0 +1,176 @@
+import events.Eviction;
+import models.EvictionAlgorithm;
+import models.Timer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+public class Simulator {
+    private static final Duration CLEAN_UP_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration NO_EXPIRY = Duration.ofDays(365);
+    private static final DataSource<Long, Boolean> TRACE_SOURCE = new DataSource<>() {
+        @Override
+        public CompletionStage<Boolean> load(final Long key) {
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+
+        @Override
+        public CompletionStage<Void> persist(final Long key, final Boolean value, final long timestamp) {
+            return CompletableFuture.completedFuture(null);
+        }
+    };
+    private final Trace trace;
+
+    public Simulator(final Trace trace) {
+        this.trace = trace;
+    }
+
+    public List<Result> run(final Collection<EvictionAlgorithm> evictionAlgorithms, final int[] maximumSizes, final Duration expiryTime) {
+        final List<Runnable> runs = new ArrayList<>();
+        final Result[] results = new Result[evictionAlgorithms.size() * maximumSizes.length];
+        for (final EvictionAlgorithm evictionAlgorithm : evictionAlgorithms) {
+            for (final int maximumSize : maximumSizes) {
+                final int index = runs.size();
+                runs.add(() -> results[index] = run(evictionAlgorithm, maximumSize, expiryTime));
+            }
+        }
+        runs.parallelStream().forEach(Runnable::run);
+        return Arrays.asList(results);
+    }
+
+    public Result run(final EvictionAlgorithm evictionAlgorithm, final int maximumSize, final Duration expiryTime) {
+        final var timer = new SimulatedTimer();
+        final var cache = new CacheBuilder<Long, Boolean>()
+                .maximumSize(maximumSize)
+                .expiryTime(expiryTime)
+                .evictionAlgorithm(evictionAlgorithm)
+                .timer(timer)
+                .poolSize(0)
+                .cleanUpInterval(NO_EXPIRY)
+                .recordStats()
+                .dataSource(TRACE_SOURCE)
+                .build();
+        final boolean expires = expiryTime.compareTo(NO_EXPIRY) < 0;
+        long hits = 0, hitBytes = 0, requestedBytes = 0;
+        long nextCleanUp = trace.getLength() == 0 ? 0 : trace.getTime(0) + CLEAN_UP_INTERVAL.toNanos();
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < trace.getLength(); i++) {
+            timer.time = trace.getTime(i);
+            if (expires && timer.time - nextCleanUp >= 0) {
+                cache.cleanUp();
+                nextCleanUp = timer.time + CLEAN_UP_INTERVAL.toNanos();
+            }
+            final Long key = trace.getKey(i);
+            final int size = trace.getSize(i);
+            requestedBytes += size;
+            if (cache.getIfPresent(key) != null) {
+                hits++;
+                hitBytes += size;
+            } else {
+                cache.get(key).toCompletableFuture().join();
+            }
+        }
+        final long elapsedTime = System.nanoTime() - startTime;
+        final var stats = cache.stats();
+        cache.shutdown().toCompletableFuture().join();
+        return new Result(evictionAlgorithm, maximumSize, trace.getLength(), hits, requestedBytes, hitBytes,
+                stats.getEvictionCount(Eviction.Type.REPLACEMENT), stats.getEvictionCount(Eviction.Type.EXPIRY), elapsedTime);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: Simulator <trace file> <size,size,...> [expiry seconds]");
+            System.exit(1);
+        }
+        final var trace = Trace.read(Path.of(args[0]));
+        final int[] maximumSizes = Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray();
+        final var expiryTime = args.length > 2 ? Duration.ofSeconds(Long.parseLong(args[2])) : NO_EXPIRY;
+        new Simulator(trace).run(List.of(EvictionAlgorithm.values()), maximumSizes, expiryTime).forEach(System.out::println);
+    }
+
+    private static class SimulatedTimer extends Timer {
+        private long time;
+
+        @Override
+        public long getCurrentTime() {
+            return time;
+        }
+    }
+
+    public static class Result {
+        private final EvictionAlgorithm evictionAlgorithm;
+        private final int maximumSize;
+        private final long requestCount;
+        private final long hitCount;
+        private final long requestedBytes;
+        private final long hitBytes;
+        private final long evictionCount;
+        private final long expirationCount;
+        private final long elapsedTime;
+
+        private Result(final EvictionAlgorithm evictionAlgorithm,
+                       final int maximumSize,
+                       final long requestCount,
+                       final long hitCount,
+                       final long requestedBytes,
+                       final long hitBytes,
+                       final long evictionCount,
+                       final long expirationCount,
+                       final long elapsedTime) {
+            this.evictionAlgorithm = evictionAlgorithm;
+            this.maximumSize = maximumSize;
+            this.requestCount = requestCount;
+            this.hitCount = hitCount;
+            this.requestedBytes = requestedBytes;
+            this.hitBytes = hitBytes;
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+            this.elapsedTime = elapsedTime;
+        }
+
+        public EvictionAlgorithm getEvictionAlgorithm() {
+            return evictionAlgorithm;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public double getHitRatio() {
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        public double getByteHitRatio() {
+            return requestedBytes == 0 ? 1.0 : (double) hitBytes / requestedBytes;
+        }
+
+        public double getChurn() {
+            return requestCount == 0 ? 0.0 : (double) evictionCount / requestCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getExpirationCount() {
+            return expirationCount;
+        }
+
+        public double getOperationsPerSecond() {
+            return elapsedTime == 0 ? 0.0 : requestCount * 1e9 / elapsedTime;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s size=%-9d hitRatio=%.4f byteHitRatio=%.4f churn=%.4f evictions=%d expirations=%d ops/s=%.0f",
+                    evictionAlgorithm, maximumSize, getHitRatio(), getByteHitRatio(), getChurn(), evictionCount, expirationCount, getOperationsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import models.AccessDetails;
+import models.Record;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+class Snapshot<KEY, VALUE> {
+    private static final int MAGIC = 0x43534e50, VERSION = 1, CHUNK_SIZE = 1024;
+    private final Path file;
+    private final Serializer<KEY> keySerializer;
+    private final Serializer<VALUE> valueSerializer;
+
+    Snapshot(final Path file, final Serializer<KEY> keySerializer, final Serializer<VALUE> valueSerializer) {
+        this.file = file;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    void write(final Collection<Record<KEY, VALUE>> records, final long currentTime) {
+        final var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (final var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(System.currentTimeMillis());
+                output.writeInt(records.size());
+                for (final Record<KEY, VALUE> record : records) {
+                    writeBytes(output, keySerializer.serialize(record.getKey()));
+                    writeBytes(output, valueSerializer.serialize(record.getValue()));
+                    output.writeLong(currentTime - record.getInsertionTime());
+                    output.writeLong(record.getTimeToLive());
+                    output.writeInt(record.getAccessDetails().getAccessCount());
+                    output.writeLong(currentTime - record.getAccessDetails().getLastAccessTime());
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void read(final long currentTime, final Consumer<Record<KEY, VALUE>> consumer) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        final Queue<CompletableFuture<List<Record<KEY, VALUE>>>> chunks = new ArrayDeque<>();
+        final int maximumChunksInFlight = 2 * ForkJoinPool.getCommonPoolParallelism();
+        try (final var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Unrecognised snapshot format in " + file);
+            }
+            final long downTime = Math.max(0, System.currentTimeMillis() - input.readLong()) * 1_000_000;
+            int remaining = input.readInt();
+            while (remaining > 0) {
+                final var chunk = new ArrayList<SerializedRecord>(Math.min(remaining, CHUNK_SIZE));
+                for (int i = 0; i < CHUNK_SIZE && remaining > 0; i++, remaining--) {
+                    chunk.add(new SerializedRecord(readBytes(input), readBytes(input), input.readLong(), input.readLong(), input.readInt(), input.readLong()));
+                }
+                chunks.add(CompletableFuture.supplyAsync(() -> deserialize(chunk, currentTime - downTime)));
+                if (chunks.size() >= maximumChunksInFlight) {
+                    chunks.poll().join().forEach(consumer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        while (!chunks.isEmpty()) {
+            chunks.poll().join().forEach(consumer);
+        }
+    }
+
+    private List<Record<KEY, VALUE>> deserialize(final List<SerializedRecord> chunk, final long snapshotTime) {
+        final List<Record<KEY, VALUE>> records = new ArrayList<>(chunk.size());
+        for (final SerializedRecord serialized : chunk) {
+            final var record = new Record<>(keySerializer.deserialize(serialized.key), valueSerializer.deserialize(serialized.value),
+                    snapshotTime - serialized.age, serialized.timeToLive);
+            record.setAccessDetails(new AccessDetails(snapshotTime - serialized.idleTime, serialized.accessCount));
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static void writeBytes(final DataOutputStream output, final byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private static class SerializedRecord {
+        private final byte[] key;
+        private final byte[] value;
+        private final long age;
+        private final long timeToLive;
+        private final int accessCount;
+        private final long idleTime;
+
+        private SerializedRecord(final byte[] key, final byte[] value, final long age, final long timeToLive, final int accessCount, final long idleTime) {
+            this.key = key;
+            this.value = value;
+            this.age = age;
+            this.timeToLive = timeToLive;
+            this.accessCount = accessCount;
+            this.idleTime = idleTime;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import events.Eviction;
+import lib.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+class StatsCounter {
+    private final boolean enabled;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder loadSuccesses;
+    private final LongAdder loadFailures;
+    private final LongAdder totalLoadTime;
+    private final LongAdder[] evictions;
+    private final LongAdder overloads;
+    private final LatencyHistogram loadLatency;
+    private final LatencyHistogram writeLatency;
+
+    StatsCounter(final boolean enabled) {
+        this.enabled = enabled;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.loadSuccesses = new LongAdder();
+        this.loadFailures = new LongAdder();
+        this.totalLoadTime = new LongAdder();
+        this.overloads = new LongAdder();
+        this.evictions = new LongAdder[Eviction.Type.values().length];
+        for (int i = 0; i < evictions.length; i++) {
+            evictions[i] = new LongAdder();
+        }
+        this.loadLatency = new LatencyHistogram();
+        this.writeLatency = new LatencyHistogram();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void recordHit() {
+        if (enabled) {
+            hits.increment();
+        }
+    }
+
+    void recordMiss() {
+        if (enabled) {
+            misses.increment();
+        }
+    }
+
+    void recordLoad(final boolean success, final long loadTime) {
+        (success ? loadSuccesses : loadFailures).increment();
+        totalLoadTime.add(loadTime);
+        loadLatency.record(loadTime);
+    }
+
+    void recordWrite(final long writeTime) {
+        writeLatency.record(writeTime);
+    }
+
+    void recordEviction(final Eviction.Type type) {
+        if (enabled) {
+            evictions[type.ordinal()].increment();
+        }
+    }
+
+    void recordOverload() {
+        if (enabled) {
+            overloads.increment();
+        }
+    }
+
+    CacheStats snapshot(final int[] executorQueueDepths, final long weightedSize, final long offHeapSize) {
+        final Map<Eviction.Type, Long> evictionCounts = new EnumMap<>(Eviction.Type.class);
+        for (final Eviction.Type type : Eviction.Type.values()) {
+            evictionCounts.put(type, evictions[type.ordinal()].sum());
+        }
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), totalLoadTime.sum(), evictionCounts, overloads.sum(),
+                loadLatency.snapshot(), writeLatency.snapshot(), executorQueueDepths, weightedSize, offHeapSize);
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class Trace {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L, FNV_PRIME = 0x100000001b3L;
+    private long[] times;
+    private long[] keys;
+    private int[] sizes;
+    private int length;
+
+    public Trace() {
+        this.times = new long[1 << 10];
+        this.keys = new long[1 << 10];
+        this.sizes = new int[1 << 10];
+    }
+
+    public static Trace read(final Path file) throws IOException {
+        final var trace = new Trace();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final var fields = line.trim().split("[\\s,]+");
+                if (fields[0].isEmpty() || fields[0].startsWith("#")) {
+                    continue;
+                }
+                if (fields.length >= 3) {
+                    trace.add(TimeUnit.MILLISECONDS.toNanos(Long.parseLong(fields[0])), keyOf(fields[1]), Integer.parseInt(fields[2]));
+                } else {
+                    trace.add(0, keyOf(fields[0]), fields.length == 2 ? Integer.parseInt(fields[1]) : 1);
+                }
+            }
+        }
+        return trace;
+    }
+
+    public void add(final long time, final long key, final int size) {
+        if (length == keys.length) {
+            times = Arrays.copyOf(times, length * 2);
+            keys = Arrays.copyOf(keys, length * 2);
+            sizes = Arrays.copyOf(sizes, length * 2);
+        }
+        times[length] = time;
+        keys[length] = key;
+        sizes[length] = size;
+        length++;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    long getTime(final int index) {
+        return times[index];
+    }
+
+    long getKey(final int index) {
+        return keys[index];
+    }
+
+    int getSize(final int index) {
+        return sizes[index];
+    }
+
+    private static long keyOf(final String field) {
+        try {
+            return Long.parseLong(field);
+        } catch (NumberFormatException e) {
+            long hash = FNV_OFFSET;
+            for (int i = 0; i < field.length(); i++) {
+                hash = (hash ^ field.charAt(i)) * FNV_PRIME;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+public interface Weigher<KEY, VALUE> {
+
+    int weigh(KEY key, VALUE value);
+}
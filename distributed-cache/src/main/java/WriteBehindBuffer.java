@@ -0,0 +1,170 @@
+import models.Record;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+class WriteBehindBuffer<KEY, VALUE> {
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final int FLUSH_ATTEMPTS = 3;
+    private final DataSource<KEY, VALUE> dataSource;
+    private final Consumer<Record<KEY, VALUE>> onWrite;
+    private final ScheduledExecutorService scheduler;
+    private final Duration delay;
+    private final int batchSize;
+    private final int capacity;
+    private final Map<KEY, Record<KEY, VALUE>> dirty;
+    private final Map<KEY, Record<KEY, VALUE>> inFlight;
+    private final Queue<BlockedWrite> blockedWrites;
+    private final List<CompletableFuture<Void>> flushes;
+    private boolean flushScheduled;
+    private int failedAttempts;
+
+    WriteBehindBuffer(final DataSource<KEY, VALUE> dataSource,
+                      final Consumer<Record<KEY, VALUE>> onWrite,
+                      final ScheduledExecutorService scheduler,
+                      final Duration delay,
+                      final int batchSize,
+                      final int capacity) {
+        this.dataSource = dataSource;
+        this.onWrite = onWrite;
+        this.scheduler = scheduler;
+        this.delay = delay;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.dirty = new LinkedHashMap<>();
+        this.inFlight = new HashMap<>();
+        this.blockedWrites = new ArrayDeque<>();
+        this.flushes = new ArrayList<>();
+    }
+
+    synchronized Record<KEY, VALUE> pendingRecord(final KEY key) {
+        final var record = dirty.get(key);
+        return record != null ? record : inFlight.get(key);
+    }
+
+    CompletionStage<Void> add(final Record<KEY, VALUE> record) {
+        final var accepted = new CompletableFuture<Void>();
+        final boolean admitted;
+        synchronized (this) {
+            admitted = blockedWrites.isEmpty() && (dirty.containsKey(record.getKey()) || dirty.size() + inFlight.size() < capacity);
+            if (admitted) {
+                dirty.put(record.getKey(), record);
+            } else {
+                blockedWrites.add(new BlockedWrite(record, accepted));
+            }
+        }
+        if (admitted) {
+            accepted.complete(null);
+            flush(false);
+        }
+        return accepted;
+    }
+
+    CompletionStage<Void> flushAll() {
+        final var flushed = new CompletableFuture<Void>();
+        synchronized (this) {
+            if (dirty.isEmpty() && inFlight.isEmpty() && blockedWrites.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            flushes.add(flushed);
+        }
+        flush(true);
+        return flushed;
+    }
+
+    private void flush(final boolean force) {
+        final List<Record<KEY, VALUE>> batch;
+        synchronized (this) {
+            if (!inFlight.isEmpty() || dirty.isEmpty()) {
+                return;
+            }
+            if (!force && flushes.isEmpty() && dirty.size() < batchSize && !delay.isZero()) {
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    schedule(delay);
+                }
+                return;
+            }
+            batch = new ArrayList<>(dirty.values());
+            batch.forEach(record -> inFlight.put(record.getKey(), record));
+            dirty.clear();
+        }
+        dataSource.persistAll(batch).whenComplete((__, throwable) -> onFlush(batch, throwable));
+    }
+
+    private void schedule(final Duration after) {
+        try {
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    flushScheduled = false;
+                }
+                flush(true);
+            }, after.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            flushScheduled = false;
+        }
+    }
+
+    private void onFlush(final List<Record<KEY, VALUE>> batch, final Throwable throwable) {
+        final List<CompletableFuture<Void>> admitted = new ArrayList<>();
+        final List<CompletableFuture<Void>> completedFlushes = new ArrayList<>();
+        final boolean retryInline;
+        synchronized (this) {
+            batch.forEach(record -> inFlight.remove(record.getKey()));
+            if (throwable != null) {
+                batch.forEach(record -> dirty.putIfAbsent(record.getKey(), record));
+            }
+            failedAttempts = throwable == null ? 0 : failedAttempts + 1;
+            retryInline = throwable != null && !flushes.isEmpty() && failedAttempts < FLUSH_ATTEMPTS;
+            while (!blockedWrites.isEmpty() && dirty.size() + inFlight.size() < capacity) {
+                final var blockedWrite = blockedWrites.poll();
+                dirty.put(blockedWrite.record.getKey(), blockedWrite.record);
+                admitted.add(blockedWrite.accepted);
+            }
+            if (!retryInline && (throwable != null || (dirty.isEmpty() && blockedWrites.isEmpty()))) {
+                completedFlushes.addAll(flushes);
+                flushes.clear();
+            }
+            if (throwable != null && !retryInline && !flushScheduled) {
+                flushScheduled = true;
+                schedule(RETRY_DELAY);
+            }
+        }
+        if (throwable == null) {
+            batch.forEach(onWrite);
+        }
+        admitted.forEach(accepted -> accepted.complete(null));
+        completedFlushes.forEach(flushed -> {
+            if (throwable == null) {
+                flushed.complete(null);
+            } else {
+                flushed.completeExceptionally(throwable);
+            }
+        });
+        if (throwable == null || retryInline) {
+            flush(false);
+        }
+    }
+
+    private class BlockedWrite {
+        private final Record<KEY, VALUE> record;
+        private final CompletableFuture<Void> accepted;
+
+        private BlockedWrite(final Record<KEY, VALUE> record, final CompletableFuture<Void> accepted) {
+            this.record = record;
+            this.accepted = accepted;
+        }
+    }
+}
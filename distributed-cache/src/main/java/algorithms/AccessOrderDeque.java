@@ -0,0 +1,68 @@
+package algorithms;
+
+class AccessOrderDeque<KEY> {
+    private LinkedNode<KEY> head;
+    private LinkedNode<KEY> tail;
+    private int size;
+
+    boolean contains(final LinkedNode<KEY> node) {
+        return node.deque == this;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    LinkedNode<KEY> peekFirst() {
+        return head;
+    }
+
+    void addLast(final LinkedNode<KEY> node) {
+        node.deque = this;
+        node.previous = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        size++;
+    }
+
+    void moveToBack(final LinkedNode<KEY> node) {
+        if (node != tail) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    LinkedNode<KEY> pollFirst() {
+        final var node = head;
+        if (node != null) {
+            remove(node);
+        }
+        return node;
+    }
+
+    void remove(final LinkedNode<KEY> node) {
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+        node.deque = null;
+        size--;
+    }
+}
@@ -0,0 +1,13 @@
+package algorithms;
+
+import models.AccessDetails;
+
+public interface EvictionPolicy<KEY> {
+    AccessDetails admit(KEY key, long time);
+
+    void recordAccess(AccessDetails accessDetails, long time);
+
+    void remove(AccessDetails accessDetails);
+
+    KEY evict();
+}
@@ -0,0 +1,74 @@
+package algorithms;
+
+class FrequencySketch<KEY> {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAXIMUM_FREQUENCY = 15;
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(final int maximumSize) {
+        final int capacity = Integer.highestOneBit(Math.max(maximumSize, 16) * 2 - 1);
+        this.table = new long[capacity];
+        this.tableMask = capacity - 1;
+        this.sampleSize = 10 * Math.max(maximumSize, 1);
+    }
+
+    int frequency(final KEY key) {
+        return frequencyOfHash(key.hashCode());
+    }
+
+    void increment(final KEY key) {
+        incrementHash(key.hashCode());
+    }
+
+    int frequencyOfHash(final int hashCode) {
+        final int hash = spread(hashCode);
+        int frequency = MAXIMUM_FREQUENCY;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            final long counters = table[indexOf(hash, depth)];
+            frequency = Math.min(frequency, (int) ((counters >>> offsetOf(hash, depth)) & MAXIMUM_FREQUENCY));
+        }
+        return frequency;
+    }
+
+    void incrementHash(final int hashCode) {
+        final int hash = spread(hashCode);
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            final int index = indexOf(hash, depth);
+            final int offset = offsetOf(hash, depth);
+            if (((table[index] >>> offset) & MAXIMUM_FREQUENCY) != MAXIMUM_FREQUENCY) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private int indexOf(final int hash, final int depth) {
+        long index = (hash + SEEDS[depth]) * SEEDS[depth];
+        index += index >>> 32;
+        return (int) index & tableMask;
+    }
+
+    private int offsetOf(final int hash, final int depth) {
+        return ((hash >>> (depth << 3)) & 15) << 2;
+    }
+
+    private int spread(final int hashCode) {
+        final int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
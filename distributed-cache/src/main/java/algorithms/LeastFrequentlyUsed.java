@@ -0,0 +1,95 @@
+package algorithms;
+
+import models.AccessDetails;
+
+public class LeastFrequentlyUsed<KEY> implements EvictionPolicy<KEY> {
+    private FrequencyBucket<KEY> lowestFrequency;
+
+    @Override
+    public AccessDetails admit(final KEY key, final long time) {
+        final var node = new LinkedNode<>(key, time);
+        if (lowestFrequency == null || lowestFrequency.frequency != 0) {
+            lowestFrequency = linkAfter(null, 0);
+        }
+        lowestFrequency.addLast(node);
+        return node;
+    }
+
+    @Override
+    public void recordAccess(final AccessDetails accessDetails, final long time) {
+        if (!(accessDetails instanceof LinkedNode)) {
+            return;
+        }
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        final var bucket = (FrequencyBucket<KEY>) node.deque;
+        if (bucket == null) {
+            return;
+        }
+        node.update(time);
+        var nextBucket = bucket.next;
+        if (nextBucket == null || nextBucket.frequency != node.getAccessCount()) {
+            nextBucket = linkAfter(bucket, node.getAccessCount());
+        }
+        bucket.remove(node);
+        nextBucket.addLast(node);
+        unlinkIfEmpty(bucket);
+    }
+
+    @Override
+    public void remove(final AccessDetails accessDetails) {
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        final var bucket = (FrequencyBucket<KEY>) node.deque;
+        if (bucket != null) {
+            bucket.remove(node);
+            unlinkIfEmpty(bucket);
+        }
+    }
+
+    @Override
+    public KEY evict() {
+        if (lowestFrequency == null) {
+            return null;
+        }
+        final var bucket = lowestFrequency;
+        final var node = bucket.pollFirst();
+        unlinkIfEmpty(bucket);
+        return node.key;
+    }
+
+    private FrequencyBucket<KEY> linkAfter(final FrequencyBucket<KEY> previous, final int frequency) {
+        final var bucket = new FrequencyBucket<KEY>(frequency);
+        bucket.previous = previous;
+        bucket.next = previous == null ? lowestFrequency : previous.next;
+        if (bucket.next != null) {
+            bucket.next.previous = bucket;
+        }
+        if (previous != null) {
+            previous.next = bucket;
+        }
+        return bucket;
+    }
+
+    private void unlinkIfEmpty(final FrequencyBucket<KEY> bucket) {
+        if (!bucket.isEmpty()) {
+            return;
+        }
+        if (bucket.previous == null) {
+            lowestFrequency = bucket.next;
+        } else {
+            bucket.previous.next = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    private static class FrequencyBucket<KEY> extends AccessOrderDeque<KEY> {
+        private final int frequency;
+        private FrequencyBucket<KEY> previous;
+        private FrequencyBucket<KEY> next;
+
+        private FrequencyBucket(final int frequency) {
+            this.frequency = frequency;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package algorithms;
+
+import models.AccessDetails;
+
+public class LeastRecentlyUsed<KEY> implements EvictionPolicy<KEY> {
+    private final AccessOrderDeque<KEY> accessOrder;
+
+    public LeastRecentlyUsed() {
+        this.accessOrder = new AccessOrderDeque<>();
+    }
+
+    @Override
+    public AccessDetails admit(final KEY key, final long time) {
+        final var node = new LinkedNode<>(key, time);
+        accessOrder.addLast(node);
+        return node;
+    }
+
+    @Override
+    public void recordAccess(final AccessDetails accessDetails, final long time) {
+        if (!(accessDetails instanceof LinkedNode)) {
+            return;
+        }
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        if (accessOrder.contains(node)) {
+            node.update(time);
+            accessOrder.moveToBack(node);
+        }
+    }
+
+    @Override
+    public void remove(final AccessDetails accessDetails) {
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        if (accessOrder.contains(node)) {
+            accessOrder.remove(node);
+        }
+    }
+
+    @Override
+    public KEY evict() {
+        final var node = accessOrder.pollFirst();
+        return node == null ? null : node.key;
+    }
+}
@@ -0,0 +1,23 @@
+package algorithms;
+
+import models.AccessDetails;
+
+class LinkedNode<KEY> extends AccessDetails {
+    final KEY key;
+    LinkedNode<KEY> previous;
+    LinkedNode<KEY> next;
+    AccessOrderDeque<KEY> deque;
+    LinkedNode<KEY> previousInTimer;
+    LinkedNode<KEY> nextInTimer;
+    long expirationTime;
+
+    LinkedNode(final KEY key, final long time) {
+        super(time);
+        this.key = key;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <KEY> LinkedNode<KEY> of(final AccessDetails accessDetails) {
+        return (LinkedNode<KEY>) accessDetails;
+    }
+}
@@ -0,0 +1,88 @@
+package algorithms;
+
+import java.util.Arrays;
+
+class SlotDeques {
+    static final int NONE = -1;
+    private final int[] previous;
+    private final int[] next;
+    private final int[] deque;
+    private final int[] heads;
+    private final int[] tails;
+    private final int[] sizes;
+
+    SlotDeques(final int slots, final int deques) {
+        this.previous = new int[slots];
+        this.next = new int[slots];
+        this.deque = new int[slots];
+        this.heads = new int[deques];
+        this.tails = new int[deques];
+        this.sizes = new int[deques];
+        Arrays.fill(deque, NONE);
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+    }
+
+    int dequeOf(final int slot) {
+        return deque[slot];
+    }
+
+    boolean isEmpty(final int id) {
+        return heads[id] == NONE;
+    }
+
+    int size(final int id) {
+        return sizes[id];
+    }
+
+    int peekFirst(final int id) {
+        return heads[id];
+    }
+
+    void addLast(final int id, final int slot) {
+        deque[slot] = id;
+        previous[slot] = tails[id];
+        next[slot] = NONE;
+        if (tails[id] == NONE) {
+            heads[id] = slot;
+        } else {
+            next[tails[id]] = slot;
+        }
+        tails[id] = slot;
+        sizes[id]++;
+    }
+
+    void moveToBack(final int slot) {
+        final int id = deque[slot];
+        if (tails[id] != slot) {
+            remove(slot);
+            addLast(id, slot);
+        }
+    }
+
+    int pollFirst(final int id) {
+        final int slot = heads[id];
+        if (slot != NONE) {
+            remove(slot);
+        }
+        return slot;
+    }
+
+    void remove(final int slot) {
+        final int id = deque[slot];
+        if (previous[slot] == NONE) {
+            heads[id] = next[slot];
+        } else {
+            next[previous[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            tails[id] = previous[slot];
+        } else {
+            previous[next[slot]] = previous[slot];
+        }
+        previous[slot] = NONE;
+        next[slot] = NONE;
+        deque[slot] = NONE;
+        sizes[id]--;
+    }
+}
@@ -0,0 +1,13 @@
+package algorithms;
+
+public interface SlotEvictionPolicy {
+    int NONE = SlotDeques.NONE;
+
+    void admit(int slot, int hashCode);
+
+    void recordAccess(int slot, int hashCode);
+
+    void remove(int slot);
+
+    int evict();
+}
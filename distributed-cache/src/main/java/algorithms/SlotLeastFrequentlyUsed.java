@@ -0,0 +1,101 @@
+package algorithms;
+
+public class SlotLeastFrequentlyUsed implements SlotEvictionPolicy {
+    private final SlotDeques buckets;
+    private final int[] accessCounts;
+    private final int[] frequencies;
+    private final int[] previousBucket;
+    private final int[] nextBucket;
+    private final int[] freeBuckets;
+    private int freeBucketCount;
+    private int lowestFrequency;
+
+    public SlotLeastFrequentlyUsed(final int slots) {
+        this.buckets = new SlotDeques(slots, slots + 1);
+        this.accessCounts = new int[slots];
+        this.frequencies = new int[slots + 1];
+        this.previousBucket = new int[slots + 1];
+        this.nextBucket = new int[slots + 1];
+        this.freeBuckets = new int[slots + 1];
+        for (int bucket = slots; bucket >= 0; bucket--) {
+            freeBuckets[freeBucketCount++] = bucket;
+        }
+        this.lowestFrequency = NONE;
+    }
+
+    @Override
+    public void admit(final int slot, final int hashCode) {
+        accessCounts[slot] = 0;
+        if (lowestFrequency == NONE || frequencies[lowestFrequency] != 0) {
+            lowestFrequency = linkAfter(NONE, 0);
+        }
+        buckets.addLast(lowestFrequency, slot);
+    }
+
+    @Override
+    public void recordAccess(final int slot, final int hashCode) {
+        final int bucket = buckets.dequeOf(slot);
+        if (bucket == NONE) {
+            return;
+        }
+        if (accessCounts[slot] != Integer.MAX_VALUE) {
+            accessCounts[slot]++;
+        }
+        int next = nextBucket[bucket];
+        if (next == NONE || frequencies[next] != accessCounts[slot]) {
+            next = linkAfter(bucket, accessCounts[slot]);
+        }
+        buckets.remove(slot);
+        buckets.addLast(next, slot);
+        unlinkIfEmpty(bucket);
+    }
+
+    @Override
+    public void remove(final int slot) {
+        final int bucket = buckets.dequeOf(slot);
+        if (bucket != NONE) {
+            buckets.remove(slot);
+            unlinkIfEmpty(bucket);
+        }
+    }
+
+    @Override
+    public int evict() {
+        if (lowestFrequency == NONE) {
+            return NONE;
+        }
+        final int bucket = lowestFrequency;
+        final int slot = buckets.pollFirst(bucket);
+        unlinkIfEmpty(bucket);
+        return slot;
+    }
+
+    private int linkAfter(final int previous, final int frequency) {
+        final int bucket = freeBuckets[--freeBucketCount];
+        frequencies[bucket] = frequency;
+        previousBucket[bucket] = previous;
+        nextBucket[bucket] = previous == NONE ? lowestFrequency : nextBucket[previous];
+        if (nextBucket[bucket] != NONE) {
+            previousBucket[nextBucket[bucket]] = bucket;
+        }
+        if (previous != NONE) {
+            nextBucket[previous] = bucket;
+        }
+        return bucket;
+    }
+
+    private void unlinkIfEmpty(final int bucket) {
+        if (!buckets.isEmpty(bucket)) {
+            return;
+        }
+        if (previousBucket[bucket] == NONE) {
+            lowestFrequency = nextBucket[bucket];
+        } else {
+            nextBucket[previousBucket[bucket]] = nextBucket[bucket];
+        }
+        if (nextBucket[bucket] != NONE) {
+            previousBucket[nextBucket[bucket]] = previousBucket[bucket];
+        }
+        freeBuckets[freeBucketCount++] = bucket;
+    }
+}
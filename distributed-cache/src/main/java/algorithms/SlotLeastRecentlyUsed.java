@@ -0,0 +1,34 @@
+package algorithms;
+
+public class SlotLeastRecentlyUsed implements SlotEvictionPolicy {
+    private static final int ACCESS_ORDER = 0;
+    private final SlotDeques deques;
+
+    public SlotLeastRecentlyUsed(final int slots) {
+        this.deques = new SlotDeques(slots, 1);
+    }
+
+    @Override
+    public void admit(final int slot, final int hashCode) {
+        deques.addLast(ACCESS_ORDER, slot);
+    }
+
+    @Override
+    public void recordAccess(final int slot, final int hashCode) {
+        if (deques.dequeOf(slot) != NONE) {
+            deques.moveToBack(slot);
+        }
+    }
+
+    @Override
+    public void remove(final int slot) {
+        if (deques.dequeOf(slot) != NONE) {
+            deques.remove(slot);
+        }
+    }
+
+    @Override
+    public int evict() {
+        return deques.pollFirst(ACCESS_ORDER);
+    }
+}
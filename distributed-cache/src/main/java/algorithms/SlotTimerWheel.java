@@ -0,0 +1,97 @@
+package algorithms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+public class SlotTimerWheel {
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+    };
+    private static final int[] FIRST_BUCKET = new int[BUCKETS.length];
+    private final SlotDeques deques;
+    private final long[] expirationTimes;
+    private final IntConsumer onExpiry;
+    private long time;
+
+    static {
+        for (int level = 1; level < BUCKETS.length; level++) {
+            FIRST_BUCKET[level] = FIRST_BUCKET[level - 1] + BUCKETS[level - 1];
+        }
+    }
+
+    public SlotTimerWheel(final int slots, final long time, final IntConsumer onExpiry) {
+        this.deques = new SlotDeques(slots, FIRST_BUCKET[BUCKETS.length - 1] + BUCKETS[BUCKETS.length - 1]);
+        this.expirationTimes = new long[slots];
+        this.onExpiry = onExpiry;
+        this.time = time;
+    }
+
+    public long getExpirationTime(final int slot) {
+        return expirationTimes[slot];
+    }
+
+    public void schedule(final int slot, final long expirationTime) {
+        cancel(slot);
+        expirationTimes[slot] = expirationTime;
+        deques.addLast(findBucket(expirationTime), slot);
+    }
+
+    public void cancel(final int slot) {
+        if (deques.dequeOf(slot) != SlotDeques.NONE) {
+            deques.remove(slot);
+        }
+    }
+
+    public void advance(final long currentTime) {
+        final long previousTime = time;
+        time = currentTime;
+        for (int level = 0; level < BUCKETS.length; level++) {
+            final int shift = Long.numberOfTrailingZeros(SPANS[level]);
+            final long previousTicks = previousTime >>> shift;
+            final long delta = (currentTime >>> shift) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(level, previousTicks, delta);
+        }
+    }
+
+    private void expire(final int level, final long previousTicks, final long delta) {
+        final int mask = BUCKETS[level] - 1;
+        final int start = (int) (previousTicks & mask);
+        final int end = start + (int) Math.min(delta + 1, BUCKETS[level]);
+        for (int bucket = start; bucket < end; bucket++) {
+            final int id = FIRST_BUCKET[level] + (bucket & mask);
+            for (int remaining = deques.size(id); remaining > 0; remaining--) {
+                final int slot = deques.pollFirst(id);
+                if (expirationTimes[slot] - time > 0) {
+                    deques.addLast(findBucket(expirationTimes[slot]), slot);
+                } else {
+                    onExpiry.accept(slot);
+                }
+            }
+        }
+    }
+
+    private int findBucket(final long expirationTime) {
+        final long duration = expirationTime - time;
+        final int lastLevel = BUCKETS.length - 1;
+        for (int level = 0; level < lastLevel; level++) {
+            if (duration < SPANS[level + 1]) {
+                final long ticks = expirationTime >>> Long.numberOfTrailingZeros(SPANS[level]);
+                return FIRST_BUCKET[level] + (int) (ticks & (BUCKETS[level] - 1));
+            }
+        }
+        return FIRST_BUCKET[lastLevel];
+    }
+
+    private static long ceilingPowerOfTwo(final long value) {
+        return Long.highestOneBit(value * 2 - 1);
+    }
+}
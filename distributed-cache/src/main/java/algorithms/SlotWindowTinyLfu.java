@@ -0,0 +1,73 @@
+package algorithms;
+
+public class SlotWindowTinyLfu implements SlotEvictionPolicy {
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+    private final FrequencySketch<Void> sketch;
+    private final SlotDeques deques;
+    private final int[] hashCodes;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+
+    public SlotWindowTinyLfu(final int slots) {
+        this.sketch = new FrequencySketch<>(slots);
+        this.deques = new SlotDeques(slots, 3);
+        this.hashCodes = new int[slots];
+        this.windowMaximum = Math.max(1, slots / 100);
+        this.protectedMaximum = (int) ((slots - windowMaximum) * 0.8);
+    }
+
+    @Override
+    public void admit(final int slot, final int hashCode) {
+        sketch.incrementHash(hashCode);
+        hashCodes[slot] = hashCode;
+        deques.addLast(WINDOW, slot);
+        if (deques.size(WINDOW) > windowMaximum) {
+            deques.addLast(PROBATION, deques.pollFirst(WINDOW));
+        }
+    }
+
+    @Override
+    public void recordAccess(final int slot, final int hashCode) {
+        final int deque = deques.dequeOf(slot);
+        if (deque == NONE) {
+            return;
+        }
+        sketch.incrementHash(hashCode);
+        if (deque == PROBATION) {
+            deques.remove(slot);
+            deques.addLast(PROTECTED, slot);
+            if (deques.size(PROTECTED) > protectedMaximum) {
+                deques.addLast(PROBATION, deques.pollFirst(PROTECTED));
+            }
+        } else {
+            deques.moveToBack(slot);
+        }
+    }
+
+    @Override
+    public void remove(final int slot) {
+        if (deques.dequeOf(slot) != NONE) {
+            deques.remove(slot);
+        }
+    }
+
+    @Override
+    public int evict() {
+        final int victim = !deques.isEmpty(PROBATION) ? deques.peekFirst(PROBATION) : deques.peekFirst(PROTECTED);
+        final int candidate = deques.size(WINDOW) >= windowMaximum ? deques.peekFirst(WINDOW) : NONE;
+        if (candidate == NONE && victim == NONE) {
+            return NONE;
+        } else if (candidate == NONE) {
+            deques.remove(victim);
+            return victim;
+        } else if (victim == NONE || sketch.frequencyOfHash(hashCodes[candidate]) <= sketch.frequencyOfHash(hashCodes[victim])) {
+            deques.remove(candidate);
+            return candidate;
+        } else {
+            deques.remove(victim);
+            deques.remove(candidate);
+            deques.addLast(PROBATION, candidate);
+            return victim;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package algorithms;
+
+import models.AccessDetails;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+public class TimerWheel<KEY> {
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+    };
+    private final LinkedNode<KEY>[][] wheel;
+    private final BiConsumer<KEY, AccessDetails> onExpiry;
+    private long time;
+
+    public TimerWheel(final long time, final BiConsumer<KEY, AccessDetails> onExpiry) {
+        this.time = time;
+        this.onExpiry = onExpiry;
+        this.wheel = newWheel(BUCKETS.length);
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheel[level] = newBuckets(BUCKETS[level]);
+            for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+                final var sentinel = new LinkedNode<KEY>(null, time);
+                sentinel.previousInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+                wheel[level][bucket] = sentinel;
+            }
+        }
+    }
+
+    public void schedule(final AccessDetails accessDetails, final long expirationTime) {
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        cancel(node);
+        node.expirationTime = expirationTime;
+        link(findBucket(expirationTime), node);
+    }
+
+    public void cancel(final AccessDetails accessDetails) {
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        if (node.nextInTimer != null) {
+            node.previousInTimer.nextInTimer = node.nextInTimer;
+            node.nextInTimer.previousInTimer = node.previousInTimer;
+            node.previousInTimer = null;
+            node.nextInTimer = null;
+        }
+    }
+
+    public void advance(final long currentTime) {
+        final long previousTime = time;
+        time = currentTime;
+        for (int level = 0; level < BUCKETS.length; level++) {
+            final int shift = Long.numberOfTrailingZeros(SPANS[level]);
+            final long previousTicks = previousTime >>> shift;
+            final long delta = (currentTime >>> shift) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(level, previousTicks, delta);
+        }
+    }
+
+    private void expire(final int level, final long previousTicks, final long delta) {
+        final var buckets = wheel[level];
+        final int mask = buckets.length - 1;
+        final int start = (int) (previousTicks & mask);
+        final int end = start + (int) Math.min(delta + 1, buckets.length);
+        for (int bucket = start; bucket < end; bucket++) {
+            final var sentinel = buckets[bucket & mask];
+            var node = sentinel.nextInTimer;
+            sentinel.previousInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            while (node != sentinel) {
+                final var next = node.nextInTimer;
+                node.previousInTimer = null;
+                node.nextInTimer = null;
+                if (node.expirationTime - time > 0) {
+                    link(findBucket(node.expirationTime), node);
+                } else {
+                    onExpiry.accept(node.key, node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private LinkedNode<KEY> findBucket(final long expirationTime) {
+        final long duration = expirationTime - time;
+        final int lastLevel = wheel.length - 1;
+        for (int level = 0; level < lastLevel; level++) {
+            if (duration < SPANS[level + 1]) {
+                final long ticks = expirationTime >>> Long.numberOfTrailingZeros(SPANS[level]);
+                return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+            }
+        }
+        return wheel[lastLevel][0];
+    }
+
+    private void link(final LinkedNode<KEY> sentinel, final LinkedNode<KEY> node) {
+        node.previousInTimer = sentinel.previousInTimer;
+        node.nextInTimer = sentinel;
+        sentinel.previousInTimer.nextInTimer = node;
+        sentinel.previousInTimer = node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KEY> LinkedNode<KEY>[][] newWheel(final int levels) {
+        return (LinkedNode<KEY>[][]) new LinkedNode<?>[levels][];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KEY> LinkedNode<KEY>[] newBuckets(final int buckets) {
+        return (LinkedNode<KEY>[]) new LinkedNode<?>[buckets];
+    }
+
+    private static long ceilingPowerOfTwo(final long value) {
+        return Long.highestOneBit(value * 2 - 1);
+    }
+}
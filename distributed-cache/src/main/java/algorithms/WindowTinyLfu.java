@@ -0,0 +1,82 @@
+package algorithms;
+
+import models.AccessDetails;
+
+public class WindowTinyLfu<KEY> implements EvictionPolicy<KEY> {
+    private final FrequencySketch<KEY> sketch;
+    private final AccessOrderDeque<KEY> window;
+    private final AccessOrderDeque<KEY> probation;
+    private final AccessOrderDeque<KEY> protectedSegment;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+
+    public WindowTinyLfu(final int maximumSize) {
+        this.sketch = new FrequencySketch<>(maximumSize);
+        this.window = new AccessOrderDeque<>();
+        this.probation = new AccessOrderDeque<>();
+        this.protectedSegment = new AccessOrderDeque<>();
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+    }
+
+    @Override
+    public AccessDetails admit(final KEY key, final long time) {
+        sketch.increment(key);
+        final var node = new LinkedNode<>(key, time);
+        window.addLast(node);
+        if (window.size() > windowMaximum) {
+            probation.addLast(window.pollFirst());
+        }
+        return node;
+    }
+
+    @Override
+    public void recordAccess(final AccessDetails accessDetails, final long time) {
+        if (!(accessDetails instanceof LinkedNode)) {
+            return;
+        }
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        if (node.deque == null) {
+            return;
+        }
+        sketch.increment(node.key);
+        node.update(time);
+        if (node.deque == probation) {
+            probation.remove(node);
+            protectedSegment.addLast(node);
+            if (protectedSegment.size() > protectedMaximum) {
+                probation.addLast(protectedSegment.pollFirst());
+            }
+        } else {
+            node.deque.moveToBack(node);
+        }
+    }
+
+    @Override
+    public void remove(final AccessDetails accessDetails) {
+        final LinkedNode<KEY> node = LinkedNode.of(accessDetails);
+        if (node.deque != null) {
+            node.deque.remove(node);
+        }
+    }
+
+    @Override
+    public KEY evict() {
+        final var victim = !probation.isEmpty() ? probation.peekFirst() : protectedSegment.peekFirst();
+        final var candidate = window.size() >= windowMaximum || victim == null ? window.peekFirst() : null;
+        if (candidate == null && victim == null) {
+            return null;
+        } else if (candidate == null) {
+            victim.deque.remove(victim);
+            return victim.key;
+        } else if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+            window.remove(candidate);
+            return candidate.key;
+        } else {
+            victim.deque.remove(victim);
+            window.remove(candidate);
+            probation.addLast(candidate);
+            return victim.key;
+        }
+    }
+}
@@ -15,7 +15,7 @@ public class Eviction<K, V> extends Event<K, V> {
     }
 
     public enum Type {
-        EXPIRY, REPLACEMENT
+        EXPIRY, REPLACEMENT, INVALIDATION
     }
 
     @Override
@@ -0,0 +1,9 @@
+package exceptions;
+
+public class CacheOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CacheOverloadedException(final Object key) {
+        super("Executor lane for key " + key + " is full");
+    }
+}
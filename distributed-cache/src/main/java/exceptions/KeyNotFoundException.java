@@ -0,0 +1,9 @@
+package exceptions;
+
+public class KeyNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public KeyNotFoundException(final Object key) {
+        super("No value loaded for key " + key);
+    }
+}
@@ -0,0 +1,90 @@
+package lib;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class KeyedMailboxes<KEY> {
+    private static final int FALLBACK_THREADS = 8 * Runtime.getRuntime().availableProcessors();
+    private final ExecutorService executor;
+    private final Map<KEY, CompletableFuture<Void>> mailboxes;
+
+    public KeyedMailboxes() {
+        this(newVirtualThreadExecutor());
+    }
+
+    public KeyedMailboxes(final ExecutorService executor) {
+        this.executor = executor;
+        this.mailboxes = new ConcurrentHashMap<>();
+    }
+
+    public Executor executorFor(final KEY key) {
+        return task -> submit(key, () -> {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public <U> CompletionStage<U> submit(final KEY key, final Supplier<? extends CompletionStage<U>> task) {
+        final var result = new CompletableFuture<U>();
+        final var tail = mailboxes.compute(key, (__, previous) -> (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous)
+                .thenComposeAsync(___ -> run(task, result), executor));
+        tail.whenComplete((__, throwable) -> {
+            mailboxes.remove(key, tail);
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            }
+        });
+        return result;
+    }
+
+    public int getActiveMailboxes() {
+        return mailboxes.size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static <U> CompletionStage<Void> run(final Supplier<? extends CompletionStage<U>> task, final CompletableFuture<U> result) {
+        final CompletionStage<U> stage;
+        try {
+            stage = task.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return CompletableFuture.completedFuture(null);
+        }
+        return stage.handle((value, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(value);
+            }
+            return null;
+        });
+    }
+
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            final var threadCount = new AtomicInteger();
+            final var executor = new ThreadPoolExecutor(FALLBACK_THREADS, FALLBACK_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                final var thread = new Thread(runnable, "mailbox-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package lib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+public class ReadBuffer<E> {
+    private static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private final Stripe<E>[] stripes;
+    private final Consumer<E> consumer;
+
+    public ReadBuffer(final Consumer<E> consumer) {
+        final int numberOfStripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.stripes = newStripes(numberOfStripes);
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.consumer = consumer;
+    }
+
+    public boolean offer(final E element) {
+        final var stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        return stripe.offer(element);
+    }
+
+    public void drain() {
+        for (final Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Stripe<E>[] newStripes(final int numberOfStripes) {
+        return (Stripe<E>[]) new Stripe<?>[numberOfStripes];
+    }
+
+    private static class Stripe<E> {
+        private final AtomicLong readCounter = new AtomicLong();
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+
+        private boolean offer(final E element) {
+            final long head = readCounter.get();
+            final long tail = writeCounter.get();
+            if (tail - head >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & STRIPE_MASK), element);
+            }
+            return tail + 1 - head >= STRIPE_SIZE;
+        }
+
+        private void drainTo(final Consumer<E> consumer) {
+            long head = readCounter.get();
+            final long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                final int index = (int) (head & STRIPE_MASK);
+                final E element = buffer.get(index);
+                if (element == null) {
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(element);
+            }
+            readCounter.lazySet(head);
+        }
+    }
+}
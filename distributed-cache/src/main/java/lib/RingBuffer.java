@@ -0,0 +1,187 @@
+package lib;
+
+import models.OverflowPolicy;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class RingBuffer<E> {
+    private final AtomicReferenceArray<Slot<E>> slots;
+    private final int capacity;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private final List<Subscription> subscriptions;
+
+    public RingBuffer(final int capacity, final OverflowPolicy overflowPolicy) {
+        this.capacity = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1);
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    public boolean offer(final E element) {
+        long sequence;
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            do {
+                sequence = tail.get();
+                if (sequence - consumed() >= capacity) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+            } while (!tail.compareAndSet(sequence, sequence + 1));
+        } else {
+            sequence = tail.getAndIncrement();
+        }
+        final var slot = new Slot<>(sequence, element);
+        final int index = (int) sequence & mask;
+        while (true) {
+            final var current = slots.get(index);
+            if (current != null && current.sequence > sequence) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (slots.compareAndSet(index, current, slot)) {
+                return true;
+            }
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public List<E> asList() {
+        return new View();
+    }
+
+    public Subscription subscribe() {
+        final var subscription = new Subscription(tail.get());
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    private long consumed() {
+        if (subscriptions.isEmpty()) {
+            return head.get();
+        }
+        long slowest = Long.MAX_VALUE;
+        for (final Subscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.cursor);
+        }
+        return slowest;
+    }
+
+    private long start() {
+        return Math.max(head.get(), tail.get() - capacity);
+    }
+
+    private E read(final long sequence) {
+        final var slot = slots.get((int) sequence & mask);
+        return slot != null && slot.sequence == sequence ? slot.element : null;
+    }
+
+    private List<E> snapshot() {
+        final long end = tail.get();
+        final List<E> elements = new ArrayList<>();
+        for (long sequence = Math.max(head.get(), end - capacity); sequence < end; sequence++) {
+            final var element = read(sequence);
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    public class Subscription {
+        private volatile long cursor;
+        private long missed;
+
+        private Subscription(final long cursor) {
+            this.cursor = cursor;
+        }
+
+        public synchronized List<E> poll() {
+            final List<E> elements = new ArrayList<>();
+            final long end = tail.get();
+            long position = cursor;
+            if (end - position > capacity) {
+                missed += end - capacity - position;
+                position = end - capacity;
+            }
+            while (position < end) {
+                final var slot = slots.get((int) position & mask);
+                if (slot == null || slot.sequence < position) {
+                    break;
+                }
+                if (slot.sequence == position) {
+                    elements.add(slot.element);
+                } else {
+                    missed++;
+                }
+                position++;
+            }
+            cursor = position;
+            return elements;
+        }
+
+        public synchronized long getMissed() {
+            return missed;
+        }
+
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+
+    private class View extends AbstractList<E> {
+        @Override
+        public E get(final int index) {
+            final long start = start();
+            if (index < 0 || start + index >= tail.get()) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return read(start + index);
+        }
+
+        @Override
+        public int size() {
+            return (int) (tail.get() - start());
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return snapshot().iterator();
+        }
+
+        @Override
+        public void clear() {
+            head.accumulateAndGet(tail.get(), Math::max);
+        }
+    }
+
+    private static class Slot<E> {
+        private final long sequence;
+        private final E element;
+
+        private Slot(final long sequence, final E element) {
+            this.sequence = sequence;
+            this.element = element;
+        }
+    }
+}
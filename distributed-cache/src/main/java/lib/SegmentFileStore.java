@@ -0,0 +1,233 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SegmentFileStore<KEY> {
+    private static final String PREFIX = "segment-", SUFFIX = ".data";
+    private static final double COMPACTION_THRESHOLD = 0.5;
+    private final Path directory;
+    private final int segmentSize;
+    private final long maximumSize;
+    private final Map<KEY, Location> index;
+    private final TreeMap<Integer, SegmentFile> segments;
+    private SegmentFile active;
+    private int nextSegmentId;
+
+    public SegmentFileStore(final Path directory, final int segmentSize, final long maximumSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maximumSize = maximumSize;
+        this.index = new HashMap<>();
+        this.segments = new TreeMap<>();
+        try {
+            Files.createDirectories(directory);
+            try (final var files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                for (final Path stale : files) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void put(final KEY key, final byte[] value, final long expirationTime) {
+        final int size = Integer.BYTES + value.length;
+        if (size > segmentSize) {
+            remove(key);
+            return;
+        }
+        if (active == null || active.position + size > segmentSize) {
+            roll();
+        }
+        final int offset = active.append(key, value);
+        active.liveBytes += size;
+        active.expiresBy = Math.max(active.expiresBy, expirationTime);
+        final var previous = index.put(key, new Location(active, offset, value.length, expirationTime));
+        if (previous != null) {
+            previous.segment.liveBytes -= Integer.BYTES + previous.length;
+        }
+    }
+
+    public synchronized Entry remove(final KEY key) {
+        final var location = index.remove(key);
+        if (location == null) {
+            return null;
+        }
+        location.segment.liveBytes -= Integer.BYTES + location.length;
+        return new Entry(location.segment.read(location), location.expirationTime);
+    }
+
+    public void compact(final long currentTime) {
+        final List<SegmentFile> candidates = new ArrayList<>();
+        final List<List<Map.Entry<KEY, Location>>> liveEntries = new ArrayList<>();
+        synchronized (this) {
+            for (final SegmentFile segment : segments.values()) {
+                if (segment != active && (segment.liveBytes < segmentSize * COMPACTION_THRESHOLD || segment.expiresBy < currentTime)) {
+                    candidates.add(segment);
+                    liveEntries.add(liveEntries(segment));
+                }
+            }
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            final var segment = candidates.get(i);
+            final List<byte[]> values = new ArrayList<>();
+            for (final Map.Entry<KEY, Location> entry : liveEntries.get(i)) {
+                values.add(entry.getValue().expirationTime >= currentTime ? segment.read(entry.getValue()) : null);
+            }
+            synchronized (this) {
+                final var entries = liveEntries.get(i);
+                for (int j = 0; j < entries.size(); j++) {
+                    final var key = entries.get(j).getKey();
+                    final var location = entries.get(j).getValue();
+                    if (index.get(key) != location) {
+                        continue;
+                    }
+                    if (values.get(j) == null) {
+                        index.remove(key);
+                    } else {
+                        put(key, values.get(j), location.expirationTime);
+                    }
+                }
+                drop(segment);
+            }
+        }
+    }
+
+    public synchronized long getSize() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    public synchronized int getEntries() {
+        return index.size();
+    }
+
+    public synchronized void close() {
+        index.clear();
+        while (!segments.isEmpty()) {
+            drop(segments.firstEntry().getValue());
+        }
+        active = null;
+    }
+
+    private void roll() {
+        final var path = directory.resolve(String.format("%s%08d%s", PREFIX, nextSegmentId, SUFFIX));
+        try (final var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = new SegmentFile(nextSegmentId++, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(active.id, active);
+        while (getSize() > maximumSize && segments.size() > 1) {
+            final var oldest = segments.firstEntry().getValue();
+            for (final Map.Entry<KEY, Location> entry : liveEntries(oldest)) {
+                index.remove(entry.getKey());
+            }
+            drop(oldest);
+        }
+    }
+
+    private List<Map.Entry<KEY, Location>> liveEntries(final SegmentFile segment) {
+        final List<Map.Entry<KEY, Location>> entries = new ArrayList<>();
+        for (final KEY key : segment.keys) {
+            final var location = index.get(key);
+            if (location != null && location.segment == segment) {
+                entries.add(Map.entry(key, location));
+            }
+        }
+        return entries;
+    }
+
+    private void drop(final SegmentFile segment) {
+        segments.remove(segment.id);
+        // The mapping is only released once the buffer is collected; where a mapped file cannot be unlinked it is removed on exit or on the next start.
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (FileSystemException e) {
+            segment.path.toFile().deleteOnExit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class Entry {
+        private final byte[] value;
+        private final long expirationTime;
+
+        private Entry(final byte[] value, final long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+
+        public long getExpirationTime() {
+            return expirationTime;
+        }
+    }
+
+    private class Location {
+        private final SegmentFile segment;
+        private final int offset;
+        private final int length;
+        private final long expirationTime;
+
+        private Location(final SegmentFile segment, final int offset, final int length, final long expirationTime) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    private class SegmentFile {
+        private final int id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final List<KEY> keys;
+        private int position;
+        private long liveBytes;
+        private long expiresBy;
+
+        private SegmentFile(final int id, final Path path, final MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+            this.keys = new ArrayList<>();
+        }
+
+        private int append(final KEY key, final byte[] value) {
+            keys.add(key);
+            final int offset = position;
+            buffer.putInt(offset, value.length);
+            final ByteBuffer writer = buffer.duplicate();
+            writer.position(offset + Integer.BYTES);
+            writer.put(value);
+            position += Integer.BYTES + value.length;
+            return offset;
+        }
+
+        private byte[] read(final Location location) {
+            final byte[] value = new byte[location.length];
+            final ByteBuffer reader = buffer.duplicate();
+            reader.position(location.offset + Integer.BYTES);
+            reader.get(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package lib;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+public class SlabAllocator {
+    public static final int SLAB_SIZE = 1 << 20;
+    private static final int MINIMUM_SLOT_SHIFT = 6;
+    private static final int SIZE_CLASSES = 20 - MINIMUM_SLOT_SHIFT + 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int HUGE = -1;
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private final IntStack[] freeSlots;
+    private final int[] nextSlot;
+    private final IntStack freeSlabs;
+    private volatile ByteBuffer[] slabs;
+    private int[] slabClasses;
+    private int[] slabGenerations;
+    private int numberOfSlabs;
+    private volatile long allocatedBytes;
+
+    public SlabAllocator() {
+        this.freeSlots = new IntStack[SIZE_CLASSES];
+        this.nextSlot = new int[SIZE_CLASSES];
+        for (int sizeClass = 0; sizeClass < SIZE_CLASSES; sizeClass++) {
+            freeSlots[sizeClass] = new IntStack();
+            nextSlot[sizeClass] = -1;
+        }
+        this.freeSlabs = new IntStack();
+        this.slabs = new ByteBuffer[16];
+        this.slabClasses = new int[16];
+        this.slabGenerations = new int[16];
+    }
+
+    public synchronized long allocate(final byte[] value) {
+        final int size = value.length + HEADER_SIZE;
+        final int location;
+        if (size > SLAB_SIZE) {
+            location = newSlab(HUGE, size) << (20 - MINIMUM_SLOT_SHIFT);
+        } else {
+            location = allocateSlot(sizeClass(size));
+        }
+        final var slab = slabs[slabIndex(location)];
+        final int offset = offset(location);
+        final int generation = (int) INT_VIEW.getVolatile(slab, offset) + 1;
+        final var writer = slab.duplicate();
+        writer.position(offset + HEADER_SIZE);
+        writer.put(value);
+        INT_VIEW.set(slab, offset + Integer.BYTES, value.length);
+        INT_VIEW.setVolatile(slab, offset, generation);
+        return (long) generation << 32 | (location & 0xFFFFFFFFL);
+    }
+
+    public byte[] read(final long handle) {
+        final int location = (int) handle;
+        final int generation = (int) (handle >>> 32);
+        final var slab = slabs[slabIndex(location)];
+        final int offset = offset(location);
+        if (slab == null || (int) INT_VIEW.getVolatile(slab, offset) != generation) {
+            return null;
+        }
+        final int length = (int) INT_VIEW.get(slab, offset + Integer.BYTES);
+        final var reader = slab.duplicate();
+        reader.position(offset + HEADER_SIZE);
+        final byte[] value = new byte[Math.max(0, Math.min(length, reader.remaining()))];
+        reader.get(value);
+        VarHandle.loadLoadFence();
+        return (int) INT_VIEW.getVolatile(slab, offset) == generation ? value : null;
+    }
+
+    public synchronized void free(final long handle) {
+        final int location = (int) handle;
+        final int generation = (int) (handle >>> 32);
+        final int slabIndex = slabIndex(location);
+        final var slab = slabs[slabIndex];
+        final int offset = offset(location);
+        if (slab == null || (int) INT_VIEW.getVolatile(slab, offset) != generation) {
+            return;
+        }
+        INT_VIEW.setVolatile(slab, offset, generation + 1);
+        if (slabClasses[slabIndex] == HUGE) {
+            allocatedBytes -= slab.capacity();
+            slabGenerations[slabIndex] = generation + 1;
+            slabs[slabIndex] = null;
+            freeSlabs.push(slabIndex);
+        } else {
+            freeSlots[slabClasses[slabIndex]].push(location);
+        }
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private int allocateSlot(final int sizeClass) {
+        if (!freeSlots[sizeClass].isEmpty()) {
+            return freeSlots[sizeClass].pop();
+        }
+        if (nextSlot[sizeClass] < 0) {
+            nextSlot[sizeClass] = newSlab(sizeClass, SLAB_SIZE) << (20 - MINIMUM_SLOT_SHIFT);
+        }
+        final int location = nextSlot[sizeClass];
+        final int next = location + (1 << sizeClass);
+        nextSlot[sizeClass] = slabIndex(next) == slabIndex(location) ? next : -1;
+        return location;
+    }
+
+    private int newSlab(final int sizeClass, final int size) {
+        final int slabIndex = freeSlabs.isEmpty() ? numberOfSlabs++ : freeSlabs.pop();
+        if (slabIndex >= 1 << (32 - (20 - MINIMUM_SLOT_SHIFT) - 1)) {
+            throw new IllegalStateException("Off-heap storage is full");
+        }
+        var current = slabs;
+        if (slabIndex >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            slabClasses = Arrays.copyOf(slabClasses, current.length);
+            slabGenerations = Arrays.copyOf(slabGenerations, current.length);
+        }
+        final var slab = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        INT_VIEW.setVolatile(slab, 0, slabGenerations[slabIndex]);
+        current[slabIndex] = slab;
+        slabClasses[slabIndex] = sizeClass;
+        slabs = current;
+        allocatedBytes += size;
+        return slabIndex;
+    }
+
+    private static int sizeClass(final int size) {
+        final int shift = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1 << MINIMUM_SLOT_SHIFT) - 1);
+        return shift - MINIMUM_SLOT_SHIFT;
+    }
+
+    private static int slabIndex(final int location) {
+        return location >>> (20 - MINIMUM_SLOT_SHIFT);
+    }
+
+    private static int offset(final int location) {
+        return (location & ((1 << (20 - MINIMUM_SLOT_SHIFT)) - 1)) << MINIMUM_SLOT_SHIFT;
+    }
+
+    private static class IntStack {
+        private int[] elements = new int[16];
+        private int size;
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void push(final int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        private int pop() {
+            return elements[--size];
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package lib;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+public class SlotReadBuffer {
+    private static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private final Stripe[] stripes;
+    private final IntConsumer consumer;
+
+    public SlotReadBuffer(final IntConsumer consumer) {
+        final int numberOfStripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.consumer = consumer;
+    }
+
+    public boolean offer(final int slot) {
+        final var stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        return stripe.offer(slot);
+    }
+
+    public void drain() {
+        for (final Stripe stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static class Stripe {
+        private final AtomicLong readCounter = new AtomicLong();
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicIntegerArray buffer = new AtomicIntegerArray(STRIPE_SIZE);
+
+        private boolean offer(final int slot) {
+            final long head = readCounter.get();
+            final long tail = writeCounter.get();
+            if (tail - head >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & STRIPE_MASK), slot + 1);
+            }
+            return tail + 1 - head >= STRIPE_SIZE;
+        }
+
+        private void drainTo(final IntConsumer consumer) {
+            long head = readCounter.get();
+            final long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                final int index = (int) (head & STRIPE_MASK);
+                final int slot = buffer.get(index);
+                if (slot == 0) {
+                    break;
+                }
+                buffer.lazySet(index, 0);
+                consumer.accept(slot - 1);
+            }
+            readCounter.lazySet(head);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package lib;
+
+public class TokenBucket {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private final long capacity;
+    private final long nanosPerToken;
+    private long tokens;
+    private long lastRefillTime;
+
+    public TokenBucket(final int permitsPerSecond, final long currentTime) {
+        this.capacity = permitsPerSecond;
+        this.nanosPerToken = Math.max(1, NANOS_PER_SECOND / permitsPerSecond);
+        this.tokens = capacity;
+        this.lastRefillTime = currentTime;
+    }
+
+    public synchronized boolean tryAcquire(final long currentTime) {
+        final long refill = (currentTime - lastRefillTime) / nanosPerToken;
+        if (refill > 0) {
+            if (tokens + refill >= capacity) {
+                tokens = capacity;
+                lastRefillTime = currentTime;
+            } else {
+                tokens += refill;
+                lastRefillTime += refill * nanosPerToken;
+            }
+        }
+        if (tokens == 0) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -1,50 +1,51 @@
 package models;
 
-import java.util.Objects;
-import java.util.concurrent.atomic.LongAdder;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 public class AccessDetails {
-    private final LongAdder accessCount;
+    private static final VarHandle ACCESS_COUNT, LAST_ACCESS_TIME;
+    private int accessCount;
     private long lastAccessTime;
 
-    public AccessDetails(long lastAccessTime) {
-        accessCount = new LongAdder();
-        this.lastAccessTime = lastAccessTime;
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            ACCESS_COUNT = lookup.findVarHandle(AccessDetails.class, "accessCount", int.class);
+            LAST_ACCESS_TIME = lookup.findVarHandle(AccessDetails.class, "lastAccessTime", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
-    public long getLastAccessTime() {
-        return lastAccessTime;
+    public AccessDetails(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
     }
 
-    public int getAccessCount() {
-        return (int) accessCount.longValue();
+    public AccessDetails(long lastAccessTime, int accessCount) {
+        this.lastAccessTime = lastAccessTime;
+        this.accessCount = accessCount;
     }
 
-    public AccessDetails update(long lastAccessTime) {
-        final AccessDetails accessDetails = new AccessDetails(lastAccessTime);
-        accessDetails.accessCount.add(this.accessCount.longValue() + 1);
-        return accessDetails;
+    public long getLastAccessTime() {
+        return (long) LAST_ACCESS_TIME.getOpaque(this);
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        AccessDetails that = (AccessDetails) o;
-        return lastAccessTime == that.lastAccessTime &&
-                this.getAccessCount() == that.getAccessCount();
+    public int getAccessCount() {
+        return (int) ACCESS_COUNT.getOpaque(this);
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(getAccessCount(), lastAccessTime);
+    public void update(long lastAccessTime) {
+        final int accessCount = (int) ACCESS_COUNT.getOpaque(this);
+        ACCESS_COUNT.setOpaque(this, accessCount == Integer.MAX_VALUE ? accessCount : accessCount + 1);
+        LAST_ACCESS_TIME.setOpaque(this, lastAccessTime);
     }
 
     @Override
     public String toString() {
         return "AccessDetails{" +
-                "accessCount=" + accessCount +
-                ", lastAccessTime=" + lastAccessTime +
+                "accessCount=" + getAccessCount() +
+                ", lastAccessTime=" + getLastAccessTime() +
                 '}';
     }
 }
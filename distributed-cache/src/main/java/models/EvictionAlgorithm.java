@@ -1,5 +1,5 @@
 package models;
 
 public enum EvictionAlgorithm {
-    LRU, LFU
+    LRU, LFU, W_TINY_LFU
 }
@@ -0,0 +1,5 @@
+package models;
+
+public enum ExecutionMode {
+    FIXED_POOL, VIRTUAL_THREAD_MAILBOX
+}
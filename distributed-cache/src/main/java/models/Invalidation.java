@@ -0,0 +1,27 @@
+package models;
+
+public class Invalidation<KEY> {
+    private final KEY key;
+    private final Version version;
+
+    public Invalidation(KEY key, Version version) {
+        this.key = key;
+        this.version = version;
+    }
+
+    public KEY getKey() {
+        return key;
+    }
+
+    public Version getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "Invalidation{" +
+                "key=" + key +
+                ", version=" + version +
+                '}';
+    }
+}
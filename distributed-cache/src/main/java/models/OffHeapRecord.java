@@ -0,0 +1,41 @@
+package models;
+
+import lib.SlabAllocator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+public class OffHeapRecord<KEY, VALUE> extends Record<KEY, VALUE> {
+    private final long handle;
+    private final SlabAllocator allocator;
+    private final Function<byte[], VALUE> deserializer;
+
+    public OffHeapRecord(KEY key,
+                         long handle,
+                         SlabAllocator allocator,
+                         Function<byte[], VALUE> deserializer,
+                         long insertionTime,
+                         long timeToLive,
+                         int weight) {
+        super(key, null, insertionTime, timeToLive, weight);
+        this.handle = handle;
+        this.allocator = allocator;
+        this.deserializer = deserializer;
+    }
+
+    @Override
+    public VALUE getValue() {
+        final byte[] bytes = allocator.read(handle);
+        return bytes == null ? null : deserializer.apply(bytes);
+    }
+
+    @Override
+    public CompletionStage<VALUE> getValueFuture() {
+        return CompletableFuture.completedStage(getValue());
+    }
+
+    public void release() {
+        allocator.free(handle);
+    }
+}
@@ -0,0 +1,5 @@
+package models;
+
+public enum OverflowPolicy {
+    OVERWRITE, DROP
+}
@@ -0,0 +1,5 @@
+package models;
+
+public enum OverloadPolicy {
+    REJECT, CALLER_RUNS, SHED_STALE
+}
@@ -1,15 +1,42 @@
 package models;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 public class Record<KEY, VALUE> {
+    private static final VarHandle ACCESS_DETAILS;
     private final KEY key;
     private final VALUE value;
     private final long insertionTime;
+    private final long timeToLive;
+    private final int weight;
     private AccessDetails accessDetails;
+    private CompletionStage<VALUE> valueFuture;
+
+    static {
+        try {
+            ACCESS_DETAILS = MethodHandles.lookup().findVarHandle(Record.class, "accessDetails", AccessDetails.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public Record(KEY key, VALUE value, long insertionTime) {
+        this(key, value, insertionTime, Long.MAX_VALUE);
+    }
+
+    public Record(KEY key, VALUE value, long insertionTime, long timeToLive) {
+        this(key, value, insertionTime, timeToLive, 1);
+    }
+
+    public Record(KEY key, VALUE value, long insertionTime, long timeToLive, int weight) {
         this.key = key;
         this.value = value;
         this.insertionTime = insertionTime;
+        this.timeToLive = timeToLive;
+        this.weight = weight;
         this.accessDetails = new AccessDetails(insertionTime);
     }
 
@@ -25,12 +52,33 @@ public class Record<KEY, VALUE> {
         return insertionTime;
     }
 
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public long getExpirationTime() {
+        return insertionTime + timeToLive;
+    }
+
+    public CompletionStage<VALUE> getValueFuture() {
+        var valueFuture = this.valueFuture;
+        if (valueFuture == null) {
+            valueFuture = CompletableFuture.completedStage(getValue());
+            this.valueFuture = valueFuture;
+        }
+        return valueFuture;
+    }
+
     public AccessDetails getAccessDetails() {
-        return accessDetails;
+        return (AccessDetails) ACCESS_DETAILS.getAcquire(this);
     }
 
     public void setAccessDetails(final AccessDetails accessDetails) {
-        this.accessDetails = accessDetails;
+        ACCESS_DETAILS.setRelease(this, accessDetails);
     }
 
     @Override
@@ -39,8 +87,7 @@ public class Record<KEY, VALUE> {
                 "key=" + key +
                 ", value=" + value +
                 ", insertionTime=" + insertionTime +
-                ", accessDetails=" + accessDetails +
+                ", accessDetails=" + getAccessDetails() +
                 '}';
     }
 }
-
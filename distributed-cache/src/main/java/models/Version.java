@@ -0,0 +1,34 @@
+package models;
+
+public class Version implements Comparable<Version> {
+    public static final Version INITIAL = new Version(0, "");
+    private final long counter;
+    private final String nodeId;
+
+    public Version(long counter, String nodeId) {
+        this.counter = counter;
+        this.nodeId = nodeId;
+    }
+
+    public long getCounter() {
+        return counter;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public int compareTo(final Version other) {
+        final int byCounter = Long.compare(counter, other.counter);
+        return byCounter != 0 ? byCounter : nodeId.compareTo(other.nodeId);
+    }
+
+    @Override
+    public String toString() {
+        return "Version{" +
+                "counter=" + counter +
+                ", nodeId='" + nodeId + '\'' +
+                '}';
+    }
+}
@@ -2,19 +2,33 @@ import events.Eviction;
 import events.Load;
 import events.Update;
 import events.Write;
+import exceptions.CacheOverloadedException;
 import models.EvictionAlgorithm;
+import models.ExecutionMode;
 import models.FetchAlgorithm;
+import models.OverflowPolicy;
+import models.OverloadPolicy;
+import models.Record;
 import models.SettableTimer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class TestCache {
@@ -24,6 +38,17 @@ public class TestCache {
     private DataSource<String, String> dataSource;
     private final Queue<CompletableFuture<Void>> writeOperations = new LinkedList<>();
     private DataSource<String, String> writeBackDataSource;
+    private final Serializer<String> stringSerializer = new Serializer<>() {
+        @Override
+        public byte[] serialize(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
 
     @Before
     public void setUp() {
@@ -180,6 +205,564 @@ public class TestCache {
         }
     }
 
+    @Test
+    public void Eviction_W_TINY_LFU() {
+        final var maximumSize = 10;
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(maximumSize)
+                .evictionAlgorithm(EvictionAlgorithm.W_TINY_LFU)
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < maximumSize - 1; i++) {
+            cache.set("hot" + i, "value" + i).toCompletableFuture().join();
+            for (int j = 0; j < 5; j++) {
+                cache.get("hot" + i).toCompletableFuture().join();
+            }
+        }
+        cache.getEventQueue().clear();
+        for (int i = 0; i < 100; i++) {
+            cache.set("scan" + i, "scan_value").toCompletableFuture().join();
+        }
+        final var evictedKeys = cache.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .map(event -> event.getElement().getKey())
+                .collect(Collectors.toList());
+        Assert.assertEquals(99, evictedKeys.size());
+        Assert.assertTrue(evictedKeys.stream().allMatch(key -> key.startsWith("scan")));
+    }
+
+    @Test
+    public void EvictionByWeight() {
+        final var cache = new CacheBuilder<String, String>()
+                .maximumWeight(100)
+                .weigher((key, value) -> value.length())
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            cache.set("small" + i, "x".repeat(5)).toCompletableFuture().join();
+        }
+        Assert.assertEquals(50, cache.getWeightedSize());
+        cache.set("large", "x".repeat(60)).toCompletableFuture().join();
+        Assert.assertEquals(100, cache.getWeightedSize());
+        Assert.assertEquals(2, cache.getEventQueue().stream().filter(event -> event instanceof Eviction).count());
+        cache.set("larger", "x".repeat(45)).toCompletableFuture().join();
+        Assert.assertEquals(45, cache.getWeightedSize());
+        final var evictedKeys = cache.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .map(event -> event.getElement().getKey())
+                .collect(Collectors.toList());
+        Assert.assertTrue(evictedKeys.contains("large"));
+        for (int i = 0; i < 10; i++) {
+            cache.set("small" + i, "x".repeat(5)).toCompletableFuture().join();
+        }
+        Assert.assertEquals(95, cache.getWeightedSize());
+        Assert.assertEquals("x".repeat(150), cache.set("oversized", "x".repeat(150))
+                .thenCompose(__ -> cache.get("oversized")).toCompletableFuture().join());
+        Assert.assertEquals(95, cache.getWeightedSize());
+        Assert.assertNull(cache.getIfPresent("oversized"));
+        final var segmented = new CacheBuilder<String, String>()
+                .maximumWeight(10)
+                .weigher((key, value) -> value.length())
+                .evictionAlgorithm(EvictionAlgorithm.W_TINY_LFU)
+                .segments(2)
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < 50; i++) {
+            segmented.set("key" + i, "x".repeat(1 + i % 7)).toCompletableFuture().join();
+            Assert.assertTrue(segmented.getWeightedSize() <= 10);
+        }
+        Assert.assertThrows(IllegalArgumentException.class, new CacheBuilder<String, String>()
+                .maximumWeight(3)
+                .weigher((key, value) -> value.length())
+                .segments(4)
+                .dataSource(dataSource)::build);
+    }
+
+    @Test
+    public void OffHeapStorage() {
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(2)
+                .offHeap(stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        Assert.assertEquals("violet", cache.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        final var allocatedBytes = cache.getOffHeapSize();
+        Assert.assertTrue(allocatedBytes > 0);
+        for (int i = 0; i < 1000; i++) {
+            cache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        Assert.assertEquals(allocatedBytes, cache.getOffHeapSize());
+        Assert.assertEquals("value999", cache.getIfPresent("key999"));
+        final var firstEviction = (Eviction<String, String>) cache.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals("violet", firstEviction.getElement().getValue());
+
+        final var largeValue = "x".repeat(3 << 20);
+        cache.set("large", largeValue).toCompletableFuture().join();
+        Assert.assertEquals(largeValue, cache.getIfPresent("large"));
+        cache.set("key0", "value0").toCompletableFuture().join();
+        cache.set("key1", "value1").toCompletableFuture().join();
+        Assert.assertNull(cache.getIfPresent("large"));
+        Assert.assertEquals(allocatedBytes, cache.getOffHeapSize());
+    }
+
+    @Test
+    public void DiskTier() throws IOException {
+        final var timer = new SettableTimer();
+        timer.setTime(0);
+        final var directory = Files.createTempDirectory("cache-disk-tier");
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(2)
+                .expiryTime(Duration.ofSeconds(10))
+                .timer(timer)
+                .diskTier(directory, 1 << 16, stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < 3000; i++) {
+            cache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        dataMap.clear();
+        final var loads = cache.getEventQueue().stream().filter(event -> event instanceof Load).count();
+        isEqualTo(cache.get("key2500"), "value2500");
+        Assert.assertEquals("value2500", cache.getIfPresent("key2500"));
+        Assert.assertEquals(loads, cache.getEventQueue().stream().filter(event -> event instanceof Load).count());
+        cache.set("key2501", "updated").toCompletableFuture().join();
+        isEqualTo(cache.get("key2501"), "updated");
+
+        final var diskSize = cache.getDiskSize();
+        Assert.assertTrue(diskSize > 1 << 13);
+        timer.setTime(Duration.ofSeconds(11).toNanos());
+        cache.cleanUp();
+        Assert.assertTrue(cache.getDiskSize() < diskSize);
+        Assert.assertEquals(1 << 13, cache.getDiskSize());
+        Assert.assertNull(cache.get("key2502").toCompletableFuture().exceptionally(__ -> null).join());
+        cache.shutdown().toCompletableFuture().join();
+        Assert.assertEquals(0, cache.getDiskSize());
+
+        Files.createFile(directory.resolve("segment-00000000.data"));
+        final var reopened = new CacheBuilder<String, String>()
+                .maximumSize(1)
+                .diskTier(directory, 1 << 16, stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        Assert.assertFalse(Files.exists(directory.resolve("segment-00000000.data")));
+        reopened.set("key0", "value0").toCompletableFuture().join();
+        reopened.set("key1", "value1").toCompletableFuture().join();
+        Assert.assertTrue(reopened.getDiskSize() > 0);
+        isEqualTo(reopened.get("key0"), "value0");
+        reopened.shutdown().toCompletableFuture().join();
+    }
+
+    @Test
+    public void SnapshotRestore() throws IOException {
+        final var file = Files.createTempDirectory("cache-snapshot").resolve("cache.snapshot");
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(3)
+                .snapshot(file, stringSerializer, stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            cache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        isEqualTo(cache.get("key0"), "value0");
+        cache.shutdown().toCompletableFuture().join();
+        dataMap.clear();
+
+        final var restoredCache = new CacheBuilder<String, String>()
+                .maximumSize(3)
+                .snapshot(file, stringSerializer, stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        restoredCache.set("key3", "value3").toCompletableFuture().join();
+        final var eviction = (Eviction<String, String>) restoredCache.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals("key1", eviction.getElement().getKey());
+        Assert.assertEquals("value0", restoredCache.getIfPresent("key0"));
+        Assert.assertEquals("value2", restoredCache.getIfPresent("key2"));
+        Assert.assertTrue(restoredCache.getEventQueue().stream().noneMatch(event -> event instanceof Load));
+
+        final var timer = new SettableTimer();
+        timer.setTime(0);
+        final var expiredCache = new CacheBuilder<String, String>()
+                .expiryTime(Duration.ofNanos(1))
+                .timer(timer)
+                .snapshot(file, stringSerializer, stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        Assert.assertNull(expiredCache.getIfPresent("key0"));
+
+        final var unwritableFile = file.resolveSibling("missing").resolve("cache.snapshot");
+        final var failingCache = new CacheBuilder<String, String>()
+                .snapshot(unwritableFile, stringSerializer, stringSerializer)
+                .dataSource(dataSource)
+                .build();
+        failingCache.set("key0", "value0").toCompletableFuture().join();
+        final var shutdownFailure = failingCache.shutdown().toCompletableFuture().handle((__, throwable) -> throwable).join();
+        Assert.assertTrue(shutdownFailure.getCause() instanceof UncheckedIOException);
+        Assert.assertTrue(failingCache.get("key1").toCompletableFuture().handle((__, throwable) -> throwable).join() != null);
+    }
+
+    @Test
+    public void Statistics() {
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(2)
+                .recordStats()
+                .dataSource(dataSource)
+                .build();
+        isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        Assert.assertNull(cache.get("unknown").toCompletableFuture().exceptionally(__ -> null).join());
+        final var stats = cache.stats();
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(2, stats.getMissCount());
+        Assert.assertEquals(1, stats.getLoadSuccessCount());
+        Assert.assertEquals(1, stats.getLoadFailureCount());
+        Assert.assertEquals(2, stats.getLoadLatency().getCount());
+        Assert.assertTrue(stats.getLoadLatency().getPercentile(100) >= stats.getLoadLatency().getPercentile(50));
+        Assert.assertArrayEquals(new int[]{0}, stats.getExecutorQueueDepths());
+
+        for (int i = 0; i < 3; i++) {
+            cache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        final var delta = cache.stats().minus(stats);
+        Assert.assertEquals(0, delta.getHitCount());
+        Assert.assertEquals(2, delta.getEvictionCount(Eviction.Type.REPLACEMENT));
+        Assert.assertEquals(0, delta.getEvictionCount(Eviction.Type.EXPIRY));
+        Assert.assertEquals(3, delta.getWriteLatency().getCount());
+        Assert.assertEquals(0, delta.getLoadLatency().getCount());
+        Assert.assertEquals(2, delta.getWeightedSize());
+    }
+
+    @Test
+    public void NearCacheInvalidation() throws InterruptedException {
+        final var transport = new LoopbackTransport<String>();
+        final var slowLoad = new CompletableFuture<String>();
+        final var slowLoadStarted = new CountDownLatch(1);
+        final DataSource<String, String> slowDataSource = new DataSource<>() {
+            @Override
+            public CompletionStage<String> load(String key) {
+                if (key.equals("slow")) {
+                    slowLoadStarted.countDown();
+                    return slowLoad;
+                }
+                return dataSource.load(key);
+            }
+
+            @Override
+            public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                return dataSource.persist(key, value, timestamp);
+            }
+        };
+        final var first = new CacheBuilder<String, String>().cluster("first", transport).dataSource(dataSource).build();
+        final var second = new CacheBuilder<String, String>().cluster("second", transport).dataSource(slowDataSource).build();
+        isEqualTo(first.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        isEqualTo(second.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        first.set(PROFILE_MUMBAI_ENGINEER, "red").toCompletableFuture().join();
+        Assert.assertNull(second.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        final var invalidation = (Eviction<String, String>) second.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals(Eviction.Type.INVALIDATION, invalidation.getType());
+        isEqualTo(second.get(PROFILE_MUMBAI_ENGINEER), "red");
+        Assert.assertEquals("red", first.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+
+        final var staleRead = second.get("slow");
+        slowLoadStarted.await();
+        first.set("slow", "fresh").toCompletableFuture().join();
+        slowLoad.complete("stale");
+        isEqualTo(staleRead, "stale");
+        Assert.assertNull(second.getIfPresent("slow"));
+
+        final var batching = new CacheBuilder<String, String>()
+                .cluster("batching", transport)
+                .invalidationBatchWindow(Duration.ofMinutes(1))
+                .dataSource(dataSource)
+                .build();
+        final var broadcasts = transport.getBroadcasts();
+        for (int i = 0; i < 5; i++) {
+            batching.set(PROFILE_MUMBAI_ENGINEER, "value" + i).toCompletableFuture().join();
+            batching.set(PROFILE_HYDERABAD_ENGINEER, "value" + i).toCompletableFuture().join();
+        }
+        Assert.assertEquals(broadcasts, transport.getBroadcasts());
+        Assert.assertEquals("red", first.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        batching.shutdown().toCompletableFuture().join();
+        Assert.assertEquals(broadcasts + 1, transport.getBroadcasts());
+        Assert.assertNull(first.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        isEqualTo(first.get(PROFILE_MUMBAI_ENGINEER), "value4");
+
+        final var collidingTransport = new LoopbackTransport<String>();
+        final var batched = new CacheBuilder<String, String>()
+                .cluster("Aa", collidingTransport)
+                .invalidationBatchWindow(Duration.ofMinutes(1))
+                .dataSource(dataSource)
+                .build();
+        final var immediate = new CacheBuilder<String, String>().cluster("BB", collidingTransport).dataSource(dataSource).build();
+        batched.set("tied", "Aa").toCompletableFuture().join();
+        immediate.set("tied", "BB").toCompletableFuture().join();
+        Assert.assertNull(batched.getIfPresent("tied"));
+        batched.shutdown().toCompletableFuture().join();
+        Assert.assertEquals("BB", immediate.getIfPresent("tied"));
+
+        final var evictedLoad = new CompletableFuture<String>();
+        final var tracker = new CacheBuilder<String, String>()
+                .cluster("tracker", collidingTransport)
+                .dataSource(new DataSource<>() {
+                    @Override
+                    public CompletionStage<String> load(String key) {
+                        return key.equals("evicted") ? evictedLoad : dataSource.load(key);
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                        return dataSource.persist(key, value, timestamp);
+                    }
+                }).build();
+        final var evictedRead = tracker.get("evicted");
+        immediate.set("evicted", "fresh").toCompletableFuture().join();
+        for (int i = 0; i < 2000; i++) {
+            tracker.set("tracked" + i, "value" + i).toCompletableFuture().join();
+        }
+        evictedLoad.complete("stale");
+        isEqualTo(evictedRead, "stale");
+        Assert.assertNull(tracker.getIfPresent("evicted"));
+    }
+
+    @Test
+    public void PartitionedCacheMigration() {
+        final Map<String, Cache<String, String>> shards = new HashMap<>();
+        final var partitionedCache = new PartitionedCache<String, String>(64);
+        for (final String shardId : List.of("first", "second", "third")) {
+            shards.put(shardId, new CacheBuilder<String, String>().dataSource(dataSource).build());
+            partitionedCache.addShard(shardId, new LocalShard<>(shards.get(shardId))).toCompletableFuture().join();
+        }
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            keys.add("key" + i);
+            partitionedCache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        for (final String key : keys) {
+            Assert.assertEquals(1, shards.values().stream().filter(shard -> shard.getIfPresent(key) != null).count());
+        }
+        for (final Cache<String, String> shard : shards.values()) {
+            Assert.assertTrue(shard.getResidentEntries(key -> true).size() > 50);
+        }
+
+        final var fourth = new CacheBuilder<String, String>().dataSource(dataSource).build();
+        final var loopback = new LoopbackShard<>(new LocalShard<>(fourth));
+        partitionedCache.addShard("fourth", loopback).toCompletableFuture().join();
+        shards.put("fourth", fourth);
+        final var moved = fourth.getResidentEntries(key -> true).size();
+        Assert.assertTrue(moved > 30 && moved < 120);
+        dataMap.clear();
+        for (final String key : keys) {
+            Assert.assertEquals(1, shards.values().stream().filter(shard -> shard.getIfPresent(key) != null).count());
+        }
+        final var requests = loopback.getRequests();
+        final var values = partitionedCache.getAll(keys).toCompletableFuture().join();
+        Assert.assertEquals(300, values.size());
+        Assert.assertEquals("value42", values.get("key42"));
+        Assert.assertEquals(requests + 1, loopback.getRequests());
+
+        partitionedCache.removeShard("first").toCompletableFuture().join();
+        Assert.assertTrue(shards.get("first").getResidentEntries(key -> true).isEmpty());
+        Assert.assertEquals(3, partitionedCache.getShardCount());
+        Assert.assertEquals(300, partitionedCache.getAll(keys).toCompletableFuture().join().size());
+        isEqualTo(partitionedCache.get("key7"), "value7");
+    }
+
+    @Test
+    public void EvictionWithConcurrentReaders() throws InterruptedException {
+        final var maximumSize = 100;
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(maximumSize)
+                .evictionAlgorithm(EvictionAlgorithm.LFU)
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < maximumSize; i++) {
+            cache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        final var readers = new ArrayList<Thread>();
+        for (int reader = 0; reader < 4; reader++) {
+            final var thread = new Thread(() -> {
+                final var random = new Random();
+                for (int i = 0; i < 10000; i++) {
+                    cache.get("key" + random.nextInt(maximumSize)).exceptionally(__ -> null).toCompletableFuture().join();
+                }
+            });
+            readers.add(thread);
+            thread.start();
+        }
+        for (int i = 0; i < maximumSize; i++) {
+            cache.set("random" + i, "random_value").toCompletableFuture().join();
+        }
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+        final var replacements = cache.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .filter(event -> ((Eviction<String, String>) event).getType() == Eviction.Type.REPLACEMENT)
+                .count();
+        Assert.assertTrue(replacements >= maximumSize);
+    }
+
+    @Test
+    public void GetIfPresent() {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        final var cache = new CacheBuilder<String, String>().timer(timer).dataSource(dataSource).expiryTime(Duration.ofSeconds(10)).build();
+        timer.setTime(startTime);
+        Assert.assertNull(cache.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        Assert.assertEquals(0, cache.getEventQueue().size());
+        cache.get(PROFILE_MUMBAI_ENGINEER).toCompletableFuture().join();
+        Assert.assertEquals("violet", cache.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        Assert.assertEquals(1, cache.getEventQueue().size());
+        final var hit = cache.get(PROFILE_MUMBAI_ENGINEER);
+        Assert.assertSame(hit, cache.get(PROFILE_MUMBAI_ENGINEER));
+        hit.toCompletableFuture().obtrudeValue("red");
+        Assert.assertEquals("violet", cache.get(PROFILE_MUMBAI_ENGINEER).toCompletableFuture().join());
+        timer.setTime(startTime + Duration.ofSeconds(10).toNanos() + 1);
+        Assert.assertNull(cache.getIfPresent(PROFILE_MUMBAI_ENGINEER));
+        Assert.assertEquals(1, cache.getEventQueue().size());
+    }
+
+    @Test
+    public void GetAllWithBatchLoading() {
+        final List<Set<String>> batches = new CopyOnWriteArrayList<>();
+        final DataSource<String, String> batchingDataSource = new DataSource<>() {
+            @Override
+            public CompletionStage<String> load(String key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                return dataSource.persist(key, value, timestamp);
+            }
+
+            @Override
+            public CompletionStage<Map<String, String>> loadAll(Set<String> keys) {
+                batches.add(keys);
+                final Map<String, String> values = new HashMap<>();
+                keys.stream().filter(dataMap::containsKey).forEach(key -> values.put(key, dataMap.get(key)));
+                return CompletableFuture.completedFuture(values);
+            }
+        };
+        final var cache = new CacheBuilder<String, String>().dataSource(batchingDataSource).build();
+        cache.set(PROFILE_MUMBAI_ENGINEER, "violet").toCompletableFuture().join();
+        final var values = cache.getAll(List.of(PROFILE_MUMBAI_ENGINEER, PROFILE_HYDERABAD_ENGINEER, "random")).toCompletableFuture().join();
+        Assert.assertEquals(Map.of(PROFILE_MUMBAI_ENGINEER, "violet", PROFILE_HYDERABAD_ENGINEER, "blue"), values);
+        Assert.assertEquals(List.of(Set.of(PROFILE_HYDERABAD_ENGINEER, "random")), batches);
+        Assert.assertEquals(1, cache.getEventQueue().stream().filter(event -> event instanceof Load).count());
+        Assert.assertEquals("blue", cache.getIfPresent(PROFILE_HYDERABAD_ENGINEER));
+
+        batches.clear();
+        final var batchingCache = new CacheBuilder<String, String>()
+                .batchLoadWindow(Duration.ofMillis(200))
+                .dataSource(batchingDataSource)
+                .build();
+        final var mumbai = batchingCache.get(PROFILE_MUMBAI_ENGINEER);
+        final var hyderabad = batchingCache.get(PROFILE_HYDERABAD_ENGINEER);
+        isEqualTo(mumbai, "violet");
+        isEqualTo(hyderabad, "blue");
+        Assert.assertEquals(List.of(Set.of(PROFILE_MUMBAI_ENGINEER, PROFILE_HYDERABAD_ENGINEER)), batches);
+    }
+
+    @Test
+    public void GetAllWithFailingBatchLoad() throws InterruptedException, ExecutionException, TimeoutException {
+        final var failures = new AtomicInteger(2);
+        final DataSource<String, String> failingDataSource = new DataSource<>() {
+            @Override
+            public CompletionStage<String> load(String key) {
+                return dataSource.load(key);
+            }
+
+            @Override
+            public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                return dataSource.persist(key, value, timestamp);
+            }
+
+            @Override
+            public CompletionStage<Map<String, String>> loadAll(Set<String> keys) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Backend unavailable");
+                }
+                return DataSource.super.loadAll(keys);
+            }
+        };
+        final var cache = new CacheBuilder<String, String>().dataSource(failingDataSource).build();
+        Assert.assertEquals(Map.of(), cache.getAll(List.of(PROFILE_MUMBAI_ENGINEER)).toCompletableFuture().get(5, TimeUnit.SECONDS));
+
+        final var batchingCache = new CacheBuilder<String, String>()
+                .batchLoadWindow(Duration.ofMillis(10))
+                .dataSource(failingDataSource)
+                .build();
+        final var failedLoad = batchingCache.get(PROFILE_HYDERABAD_ENGINEER).toCompletableFuture();
+        Assert.assertTrue(failedLoad.handle((__, throwable) -> throwable).get(5, TimeUnit.SECONDS).getCause() instanceof IllegalStateException);
+        Assert.assertEquals("blue", batchingCache.get(PROFILE_HYDERABAD_ENGINEER).toCompletableFuture().get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Map.of(PROFILE_MUMBAI_ENGINEER, "violet"), cache.getAll(List.of(PROFILE_MUMBAI_ENGINEER)).toCompletableFuture().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void SingleFlightLoading() throws InterruptedException {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        timer.setTime(startTime);
+        final var loads = new AtomicInteger();
+        final DataSource<String, String> slowDataSource = new DataSource<>() {
+            @Override
+            public CompletionStage<String> load(String key) {
+                loads.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> dataMap.get(key), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                return dataSource.persist(key, value, timestamp);
+            }
+        };
+        final var cache = new CacheBuilder<String, String>()
+                .timer(timer)
+                .poolSize(4)
+                .expiryTime(Duration.ofSeconds(10))
+                .loadKeysOnStart(Set.of(PROFILE_HYDERABAD_ENGINEER))
+                .dataSource(slowDataSource)
+                .build();
+        Assert.assertEquals(1, loads.get());
+        for (int round = 1; round <= 2; round++) {
+            final var start = new CountDownLatch(1);
+            final var readers = new ArrayList<Thread>();
+            for (int reader = 0; reader < 8; reader++) {
+                final var thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        Assert.assertEquals("violet", cache.get(PROFILE_MUMBAI_ENGINEER).toCompletableFuture().join());
+                        Assert.assertEquals("blue", cache.get(PROFILE_HYDERABAD_ENGINEER).toCompletableFuture().join());
+                    }
+                });
+                readers.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (final Thread reader : readers) {
+                reader.join();
+            }
+            Assert.assertEquals(2 * round, loads.get());
+            timer.setTime(startTime + Duration.ofSeconds(11).toNanos());
+        }
+        Assert.assertEquals(4, cache.getEventQueue().stream().filter(event -> event instanceof Load).count());
+        Assert.assertEquals(2, cache.getEventQueue().stream().filter(event -> event instanceof Eviction).count());
+    }
+
     @Test
     public void ExpiryOnGet() {
         final var timer = new SettableTimer();
@@ -242,6 +825,92 @@ public class TestCache {
         Assert.assertEquals(PROFILE_HYDERABAD_ENGINEER, eviction2.getElement().getKey());
     }
 
+    @Test
+    public void RefreshAfterWrite() throws InterruptedException {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        timer.setTime(startTime);
+        final var loads = new AtomicInteger();
+        final DataSource<String, String> slowDataSource = new DataSource<>() {
+            @Override
+            public CompletionStage<String> load(String key) {
+                loads.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> dataMap.get(key), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                return dataSource.persist(key, value, timestamp);
+            }
+        };
+        final var cache = new CacheBuilder<String, String>()
+                .timer(timer)
+                .expiryTime(Duration.ofSeconds(10))
+                .refreshAfterWrite(Duration.ofSeconds(5))
+                .dataSource(slowDataSource)
+                .build();
+        isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        dataMap.put(PROFILE_MUMBAI_ENGINEER, "red");
+        timer.setTime(startTime + Duration.ofSeconds(6).toNanos());
+        for (int i = 0; i < 10; i++) {
+            isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "violet");
+        }
+        while (!"red".equals(cache.getIfPresent(PROFILE_MUMBAI_ENGINEER))) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(2, cache.getEventQueue().stream().filter(event -> event instanceof Load).count());
+        Assert.assertTrue(cache.getEventQueue().stream().noneMatch(event -> event instanceof Eviction));
+        timer.setTime(startTime + Duration.ofSeconds(17).toNanos());
+        isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "red");
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void ExpiryWithTimeToLiveOverride() {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        final var cache = new CacheBuilder<String, String>().timer(timer).dataSource(dataSource).expiryTime(Duration.ofHours(1)).build();
+        timer.setTime(startTime);
+        cache.set("shortLived", "value", Duration.ofSeconds(5)).toCompletableFuture().join();
+        cache.set("longLived", "value").toCompletableFuture().join();
+        cache.getEventQueue().clear();
+        timer.setTime(startTime + Duration.ofSeconds(5).toNanos() + 1);
+        cache.cleanUp();
+        Assert.assertEquals(1, cache.getEventQueue().size());
+        final var eviction = (Eviction<String, String>) cache.getEventQueue().get(0);
+        Assert.assertEquals(Eviction.Type.EXPIRY, eviction.getType());
+        Assert.assertEquals("shortLived", eviction.getElement().getKey());
+        timer.setTime(startTime + Duration.ofMinutes(30).toNanos());
+        cache.cleanUp();
+        Assert.assertEquals(1, cache.getEventQueue().size());
+        timer.setTime(startTime + Duration.ofHours(1).toNanos() + 1);
+        cache.cleanUp();
+        Assert.assertEquals(2, cache.getEventQueue().size());
+        Assert.assertEquals("longLived", cache.getEventQueue().get(1).getElement().getKey());
+    }
+
+    @Test
+    public void ExpiryInBackground() throws InterruptedException {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        final var cache = new CacheBuilder<String, String>()
+                .timer(timer)
+                .dataSource(dataSource)
+                .expiryTime(Duration.ofSeconds(10))
+                .cleanUpInterval(Duration.ofMillis(10))
+                .build();
+        timer.setTime(startTime);
+        cache.get(PROFILE_MUMBAI_ENGINEER).toCompletableFuture().join();
+        timer.setTime(startTime + Duration.ofSeconds(10).toNanos() + 1);
+        for (int i = 0; i < 500 && cache.getEventQueue().size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, cache.getEventQueue().size());
+        assert cache.getEventQueue().get(1) instanceof Eviction;
+        Assert.assertEquals(Eviction.Type.EXPIRY, ((Eviction<String, String>) cache.getEventQueue().get(1)).getType());
+    }
+
     @Test
     public void FetchingWriteBack() {
         final var cache = new CacheBuilder<String, String>()
@@ -255,6 +924,136 @@ public class TestCache {
         acceptWrite();
     }
 
+    @Test
+    public void WriteBackCoalescing() {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        final var failures = new AtomicInteger();
+        final DataSource<String, String> batchingDataSource = new DataSource<>() {
+            @Override
+            public CompletionStage<String> load(String key) {
+                return dataSource.load(key);
+            }
+
+            @Override
+            public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletionStage<Void> persistAll(List<Record<String, String>> records) {
+                if (failures.getAndDecrement() > 0) {
+                    return CompletableFuture.failedFuture(new IllegalStateException("Backend unavailable"));
+                }
+                batches.add(records.stream().map(Record::getKey).collect(Collectors.toList()));
+                records.forEach(record -> dataMap.put(record.getKey(), record.getValue()));
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        final var cache = new CacheBuilder<String, String>()
+                .fetchAlgorithm(FetchAlgorithm.WRITE_BACK)
+                .writeBackBatchSize(3)
+                .writeBackDelay(Duration.ofHours(1))
+                .dataSource(batchingDataSource)
+                .build();
+        for (int i = 0; i < 5; i++) {
+            cache.set("hot", "value" + i).toCompletableFuture().join();
+        }
+        cache.set("warm", "value").toCompletableFuture().join();
+        Assert.assertTrue(batches.isEmpty());
+        cache.set("cold", "value").toCompletableFuture().join();
+        Assert.assertEquals(List.of(List.of("hot", "warm", "cold")), batches);
+        Assert.assertEquals("value4", dataMap.get("hot"));
+        Assert.assertEquals(3, cache.getEventQueue().stream().filter(event -> event instanceof Write).count());
+        cache.set("hot", "value5").toCompletableFuture().join();
+        Assert.assertEquals(1, batches.size());
+        failures.set(2);
+        cache.shutdown().toCompletableFuture().join();
+        Assert.assertEquals(List.of("hot"), batches.get(1));
+        Assert.assertEquals("value5", dataMap.get("hot"));
+
+        final var failingCache = new CacheBuilder<String, String>()
+                .fetchAlgorithm(FetchAlgorithm.WRITE_BACK)
+                .writeBackDelay(Duration.ofHours(1))
+                .dataSource(batchingDataSource)
+                .build();
+        failingCache.set("lost", "value").toCompletableFuture().join();
+        failures.set(Integer.MAX_VALUE);
+        final var shutdownFailure = failingCache.shutdown().toCompletableFuture().handle((__, throwable) -> throwable).join();
+        Assert.assertTrue(shutdownFailure.getCause() instanceof IllegalStateException);
+        Assert.assertFalse(dataMap.containsKey("lost"));
+    }
+
+    @Test
+    public void WriteBackBackpressure() {
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(1)
+                .fetchAlgorithm(FetchAlgorithm.WRITE_BACK)
+                .writeBackCapacity(1)
+                .dataSource(writeBackDataSource)
+                .build();
+        cache.set(PROFILE_MUMBAI_ENGINEER, "red").toCompletableFuture().join();
+        final var blocked = cache.set(PROFILE_HYDERABAD_ENGINEER, "green").toCompletableFuture();
+        Assert.assertFalse(blocked.isDone());
+        Assert.assertEquals(1, writeOperations.size());
+        isEqualTo(cache.get(PROFILE_MUMBAI_ENGINEER), "red");
+        acceptWrite();
+        blocked.join();
+        Assert.assertEquals("red", dataMap.get(PROFILE_MUMBAI_ENGINEER));
+        acceptWrite();
+        Assert.assertEquals("green", dataMap.get(PROFILE_HYDERABAD_ENGINEER));
+    }
+
+    @Test
+    public void BoundedEventQueue() {
+        final var cache = new CacheBuilder<String, String>().eventQueueCapacity(4).dataSource(dataSource).build();
+        final var subscription = cache.subscribe();
+        for (int i = 0; i < 6; i++) {
+            cache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        Assert.assertEquals(4, cache.getEventQueue().size());
+        Assert.assertEquals("key2", cache.getEventQueue().get(0).getElement().getKey());
+        Assert.assertEquals(4, subscription.poll().size());
+        Assert.assertEquals(2, subscription.getMissed());
+        cache.set("key6", "value6").toCompletableFuture().join();
+        final var events = subscription.poll();
+        Assert.assertEquals(1, events.size());
+        assert events.get(0) instanceof Write;
+        Assert.assertTrue(subscription.poll().isEmpty());
+        cache.getEventQueue().clear();
+        Assert.assertEquals(0, cache.getEventQueue().size());
+
+        final var droppingCache = new CacheBuilder<String, String>()
+                .eventQueueCapacity(4)
+                .overflowPolicy(OverflowPolicy.DROP)
+                .dataSource(dataSource)
+                .build();
+        for (int i = 0; i < 6; i++) {
+            droppingCache.set("key" + i, "value" + i).toCompletableFuture().join();
+        }
+        Assert.assertEquals(List.of("key0", "key1", "key2", "key3"), droppingCache.getEventQueue().stream()
+                .map(event -> event.getElement().getKey())
+                .collect(Collectors.toList()));
+        droppingCache.getEventQueue().clear();
+        droppingCache.set("key6", "value6").toCompletableFuture().join();
+        Assert.assertEquals(1, droppingCache.getEventQueue().size());
+
+        final var subscribedCache = new CacheBuilder<String, String>()
+                .eventQueueCapacity(4)
+                .overflowPolicy(OverflowPolicy.DROP)
+                .dataSource(dataSource)
+                .build();
+        final var keepingUp = subscribedCache.subscribe();
+        final List<String> received = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            subscribedCache.set("key" + i, "value" + i).toCompletableFuture().join();
+            keepingUp.poll().forEach(event -> received.add(event.getElement().getKey()));
+        }
+        Assert.assertEquals(10, received.size());
+        Assert.assertEquals("key9", received.get(9));
+        Assert.assertEquals(0, keepingUp.getMissed());
+        keepingUp.close();
+    }
+
     @Test
     public void FetchingWriteThrough() {
         final var cache = new CacheBuilder<String, String>().dataSource(dataSource).fetchAlgorithm(FetchAlgorithm.WRITE_THROUGH).build();
@@ -283,6 +1082,37 @@ public class TestCache {
         Assert.assertEquals(0, cache.getEventQueue().size());
     }
 
+    @Test
+    public void SegmentedCache() throws InterruptedException {
+        final var maximumSize = 1000;
+        final var cache = new CacheBuilder<String, String>()
+                .maximumSize(maximumSize)
+                .segments(8)
+                .dataSource(dataSource)
+                .build();
+        final var writers = new ArrayList<Thread>();
+        for (int writer = 0; writer < 4; writer++) {
+            final var prefix = "writer" + writer + "_";
+            final var thread = new Thread(() -> {
+                for (int i = 0; i < maximumSize / 2; i++) {
+                    cache.set(prefix + i, prefix + "value" + i).toCompletableFuture().join();
+                }
+                for (int i = 0; i < maximumSize / 2; i++) {
+                    Assert.assertEquals(prefix + "value" + i, cache.get(prefix + i).toCompletableFuture().join());
+                }
+            });
+            writers.add(thread);
+            thread.start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        final var replacements = cache.getEventQueue().stream()
+                .filter(event -> event instanceof Eviction)
+                .count();
+        Assert.assertTrue(replacements >= maximumSize);
+    }
+
     @Test
     public void RaceConditions() throws ExecutionException, InterruptedException {
         final var cache = new CacheBuilder<String, String>()
@@ -363,4 +1193,219 @@ public class TestCache {
             }
         }).toCompletableFuture().join();
     }
+
+    @Test
+    public void PrimitiveKeyCache() {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        timer.setTime(startTime);
+        final Map<Long, String> persisted = new ConcurrentHashMap<>();
+        final var cache = new PrimitiveKeyCacheBuilder<String>()
+                .maximumSize(2)
+                .timer(timer)
+                .expiryTime(Duration.ofSeconds(10))
+                .evictionAlgorithm(EvictionAlgorithm.LFU)
+                .buildLongKeyed(new DataSource<>() {
+                    @Override
+                    public CompletionStage<String> load(Long key) {
+                        return key < 0 ? CompletableFuture.failedStage(new NullPointerException()) : CompletableFuture.completedFuture("value" + key);
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(Long key, String value, long timestamp) {
+                        persisted.put(key, value);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                });
+        Assert.assertEquals("value1", cache.get(1).toCompletableFuture().join());
+        cache.set(2, "two").toCompletableFuture().join();
+        Assert.assertEquals("two", persisted.get(2L));
+        Assert.assertEquals("value1", cache.getIfPresent(1));
+        cache.set(3, "three").toCompletableFuture().join();
+        Assert.assertNull(cache.getIfPresent(2));
+        Assert.assertEquals("value1", cache.getIfPresent(1));
+        Assert.assertEquals("three", cache.getIfPresent(3));
+        Assert.assertTrue(cache.get(-1).toCompletableFuture().isCompletedExceptionally());
+        Assert.assertEquals(2, cache.size());
+        timer.setTime(startTime + Duration.ofSeconds(10).toNanos() + 1);
+        Assert.assertNull(cache.getIfPresent(1));
+        cache.cleanUp();
+        Assert.assertEquals(0, cache.size());
+
+        final var expiringCache = new PrimitiveKeyCacheBuilder<String>()
+                .maximumSize(1000)
+                .timer(timer)
+                .buildLongKeyed(new DataSource<>() {
+                    @Override
+                    public CompletionStage<String> load(Long key) {
+                        return CompletableFuture.completedFuture("value" + key);
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(Long key, String value, long timestamp) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                });
+        for (int key = 0; key < 1000; key++) {
+            expiringCache.set(key, "value" + key, Duration.ofSeconds(key % 2 == 0 ? 5 : 3600)).toCompletableFuture().join();
+        }
+        timer.setTime(timer.getCurrentTime() + Duration.ofMinutes(1).toNanos());
+        expiringCache.cleanUp();
+        Assert.assertEquals(500, expiringCache.size());
+        Assert.assertEquals("value1", expiringCache.getIfPresent(1));
+        timer.setTime(timer.getCurrentTime() + Duration.ofHours(1).toNanos());
+        expiringCache.cleanUp();
+        Assert.assertEquals(0, expiringCache.size());
+
+        final var intKeyCache = new PrimitiveKeyCacheBuilder<String>()
+                .maximumSize(100)
+                .segments(4)
+                .evictionAlgorithm(EvictionAlgorithm.W_TINY_LFU)
+                .buildIntKeyed(new DataSource<>() {
+                    @Override
+                    public CompletionStage<String> load(Integer key) {
+                        return CompletableFuture.completedFuture("value" + key);
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(Integer key, String value, long timestamp) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                });
+        for (int key = 0; key < 1000; key++) {
+            Assert.assertEquals("value" + key, intKeyCache.get(key).toCompletableFuture().join());
+            Assert.assertEquals("value" + key, intKeyCache.getIfPresent(key));
+        }
+        Assert.assertEquals(100, intKeyCache.size());
+        intKeyCache.shutdown().toCompletableFuture().join();
+        cache.shutdown().toCompletableFuture().join();
+    }
+
+    @Test
+    public void VirtualThreadMailboxes() throws ExecutionException, InterruptedException, TimeoutException {
+        final var release = new CompletableFuture<Void>();
+        dataMap.put("slow", "slow_value");
+        final var cache = new CacheBuilder<String, String>()
+                .executionMode(ExecutionMode.VIRTUAL_THREAD_MAILBOX)
+                .dataSource(new DataSource<>() {
+                    @Override
+                    public CompletionStage<String> load(String key) {
+                        if (key.equals("slow")) {
+                            return release.thenCompose(__ -> dataSource.load(key));
+                        }
+                        return dataSource.load(key);
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                        if (value.equals("stale")) {
+                            return release.thenCompose(__ -> dataSource.persist(key, value, timestamp));
+                        }
+                        return dataSource.persist(key, value, timestamp);
+                    }
+                }).build();
+        final var slowLoad = cache.get("slow");
+        final var staleWrite = cache.set("ordered", "stale");
+        final var freshWrite = cache.set("ordered", "fresh");
+        Assert.assertEquals("violet", cache.get(PROFILE_MUMBAI_ENGINEER).toCompletableFuture().get(5, TimeUnit.SECONDS));
+        final var write = cache.set("slow", "updated");
+        Assert.assertFalse(slowLoad.toCompletableFuture().isDone());
+        Assert.assertFalse(write.toCompletableFuture().isDone());
+        Assert.assertEquals("slow_value", dataMap.get("slow"));
+        Assert.assertFalse(freshWrite.toCompletableFuture().isDone());
+        release.complete(null);
+        Assert.assertEquals("slow_value", slowLoad.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        write.toCompletableFuture().get(5, TimeUnit.SECONDS);
+        staleWrite.toCompletableFuture().get(5, TimeUnit.SECONDS);
+        freshWrite.toCompletableFuture().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("fresh", dataMap.get("ordered"));
+        Assert.assertEquals("updated", cache.get("slow").toCompletableFuture().join());
+        cache.shutdown().toCompletableFuture().join();
+    }
+
+    @Test
+    public void LaneBackpressure() {
+        final var timer = new SettableTimer();
+        final var startTime = System.nanoTime();
+        timer.setTime(startTime);
+        final Map<String, CompletableFuture<String>> pendingLoads = new ConcurrentHashMap<>();
+        final var cache = new CacheBuilder<String, String>()
+                .timer(timer)
+                .expiryTime(Duration.ofSeconds(10))
+                .cleanUpInterval(Duration.ofDays(1))
+                .maximumPoolSize(2)
+                .laneCapacity(2)
+                .overloadPolicy(OverloadPolicy.SHED_STALE)
+                .recordStats()
+                .dataSource(new DataSource<>() {
+                    @Override
+                    public CompletionStage<String> load(String key) {
+                        return pendingLoads.computeIfAbsent(key, __ -> new CompletableFuture<>());
+                    }
+
+                    @Override
+                    public CompletionStage<Void> persist(String key, String value, long timestamp) {
+                        return dataSource.persist(key, value, timestamp);
+                    }
+                }).build();
+        cache.set("d", "stale_d").toCompletableFuture().join();
+        final var firstLoad = cache.get("b");
+        final var secondLoad = cache.get("f");
+        Assert.assertArrayEquals(new int[]{2}, cache.stats().getExecutorQueueDepths());
+        timer.setTime(startTime + Duration.ofSeconds(11).toNanos());
+        Assert.assertEquals("stale_d", cache.get("d").toCompletableFuture().join());
+        Assert.assertTrue(cache.get("h").toCompletableFuture().handle((__, throwable) -> throwable).join() instanceof CacheOverloadedException);
+        Assert.assertTrue(cache.set("j", "j").toCompletableFuture().handle((__, throwable) -> throwable).join() instanceof CacheOverloadedException);
+        Assert.assertEquals(Set.of("b", "f"), pendingLoads.keySet());
+        final var stats = cache.stats();
+        Assert.assertArrayEquals(new int[]{2, 0}, stats.getExecutorQueueDepths());
+        Assert.assertArrayEquals(new int[]{0}, stats.getHotLanes());
+        Assert.assertEquals(3, stats.getOverloadCount());
+
+        final var oddLoad = cache.get("a");
+        Assert.assertArrayEquals(new int[]{2, 1}, cache.stats().getExecutorQueueDepths());
+
+        pendingLoads.forEach((key, load) -> load.complete(key + "_value"));
+        Assert.assertEquals("b_value", firstLoad.toCompletableFuture().join());
+        Assert.assertEquals("f_value", secondLoad.toCompletableFuture().join());
+        Assert.assertEquals("a_value", oddLoad.toCompletableFuture().join());
+        Assert.assertArrayEquals(new int[]{0, 0}, cache.stats().getExecutorQueueDepths());
+        final var drainedLoad = cache.get("h");
+        pendingLoads.get("h").complete("h_value");
+        Assert.assertEquals("h_value", drainedLoad.toCompletableFuture().join());
+        cache.shutdown().toCompletableFuture().join();
+    }
+
+    @Test
+    public void HitRatioSimulator() {
+        final var trace = new Trace();
+        for (final long key : new long[]{1, 2, 1, 3, 1, 2}) {
+            trace.add(0, key, (int) key * 10);
+        }
+        final var lru = new Simulator(trace).run(EvictionAlgorithm.LRU, 2, Duration.ofDays(365));
+        Assert.assertEquals(2.0 / 6, lru.getHitRatio(), 1e-9);
+        Assert.assertEquals(20.0 / 100, lru.getByteHitRatio(), 1e-9);
+        Assert.assertEquals(2, lru.getEvictionCount());
+
+        final var expiringTrace = new Trace();
+        expiringTrace.add(0, 1, 1);
+        expiringTrace.add(Duration.ofMillis(500).toNanos(), 1, 1);
+        expiringTrace.add(Duration.ofSeconds(2).toNanos(), 1, 1);
+        final var expiring = new Simulator(expiringTrace).run(EvictionAlgorithm.LRU, 10, Duration.ofSeconds(1));
+        Assert.assertEquals(1.0 / 3, expiring.getHitRatio(), 1e-9);
+        Assert.assertEquals(1, expiring.getExpirationCount());
+
+        final var scanTrace = new Trace();
+        long scanKey = 1000;
+        for (int i = 0; i < 10_000; i++) {
+            scanTrace.add(0, i % 10, 1);
+            scanTrace.add(0, i % 10, 1);
+            scanTrace.add(0, scanKey++, 1);
+            scanTrace.add(0, scanKey++, 1);
+        }
+        final var results = new Simulator(scanTrace).run(List.of(EvictionAlgorithm.values()), new int[]{16}, Duration.ofDays(365));
+        Assert.assertEquals(EvictionAlgorithm.values().length, results.size());
+        Assert.assertTrue(results.get(EvictionAlgorithm.LFU.ordinal()).getHitRatio() > results.get(EvictionAlgorithm.LRU.ordinal()).getHitRatio());
+        Assert.assertTrue(results.get(EvictionAlgorithm.W_TINY_LFU.ordinal()).getHitRatio() > results.get(EvictionAlgorithm.LRU.ordinal()).getHitRatio());
+    }
 }
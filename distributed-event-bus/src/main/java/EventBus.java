@@ -1,16 +1,17 @@
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import exceptions.RetryLimitExceededException;
+import exceptions.UnknownEventException;
 import exceptions.UnsubscribedPollException;
+import lib.InMemoryTopicLog;
 import lib.KeyedExecutor;
+import lib.TopicLog;
 import models.Event;
 import models.FailureEvent;
 import models.Subscription;
 import util.Timer;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.function.Function;
@@ -18,9 +19,8 @@ import java.util.function.Predicate;
 
 @Singleton
 public class EventBus {
-    private final Map<String, List<Event>> topics;
-    private final Map<String, Map<String, Integer>> eventIndexes;
-    private final Map<String, ConcurrentSkipListMap<Long, String>> eventTimestamps;
+    private final Map<String, TopicLog> topics;
+    private final Function<String, TopicLog> topicLogs;
     private final Map<String, Map<String, Subscription>> pullSubscriptions;
     private final Map<String, Map<String, Subscription>> pushSubscriptions;
     private final KeyedExecutor<String> eventExecutor;
@@ -30,9 +30,15 @@ public class EventBus {
 
     @Inject
     public EventBus(final KeyedExecutor<String> eventExecutor, final KeyedExecutor<String> broadcastExecutor, final Timer timer) {
+        this(eventExecutor, broadcastExecutor, timer, topic -> new InMemoryTopicLog());
+    }
+
+    public EventBus(final KeyedExecutor<String> eventExecutor,
+                    final KeyedExecutor<String> broadcastExecutor,
+                    final Timer timer,
+                    final Function<String, TopicLog> topicLogs) {
         this.topics = new ConcurrentHashMap<>();
-        this.eventIndexes = new ConcurrentHashMap<>();
-        this.eventTimestamps = new ConcurrentHashMap<>();
+        this.topicLogs = topicLogs;
         this.pullSubscriptions = new ConcurrentHashMap<>();
         this.pushSubscriptions = new ConcurrentHashMap<>();
         this.eventExecutor = eventExecutor;
@@ -49,15 +55,9 @@ public class EventBus {
     }
 
     private CompletionStage<Void> publishToBus(final String topic, final Event event) {
-        if (eventIndexes.containsKey(topic) && eventIndexes.get(topic).containsKey(event.getId())) {
-            return null;
+        if (topicLog(topic).append(event, timer.getCurrentTime()) < 0) {
+            return CompletableFuture.completedStage(null);
         }
-        topics.putIfAbsent(topic, new CopyOnWriteArrayList<>());
-        eventIndexes.putIfAbsent(topic, new ConcurrentHashMap<>());
-        eventIndexes.get(topic).put(event.getId(), topics.get(topic).size());
-        eventTimestamps.putIfAbsent(topic, new ConcurrentSkipListMap<>());
-        eventTimestamps.get(topic).put(timer.getCurrentTime(), event.getId());
-        topics.get(topic).add(event);
         return notifyPushSubscribers(topic, event);
     }
 
@@ -75,8 +75,8 @@ public class EventBus {
     }
 
     private CompletionStage<Void> executeEventHandler(final Event event, Subscription subscription) {
-        return broadcastExecutor.getThreadFor(subscription.getTopic() + subscription.getSubscriber(),
-                doWithRetry(event, subscription.getEventHandler(),
+        return broadcastExecutor.getThreadForStage(subscription.getTopic() + subscription.getSubscriber(),
+                () -> doWithRetry(event, subscription.getEventHandler(),
                         1, subscription.getNumberOfRetries())
                         .exceptionally(throwable -> {
                             if (deadLetterQueue != null) {
@@ -117,9 +117,13 @@ public class EventBus {
         if (subscription == null) {
             throw new UnsubscribedPollException();
         }
-        for (var index = subscription.getCurrentIndex(); index.intValue() < topics.get(topic).size(); index.increment()) {
-            var event = topics.get(topic).get(index.intValue());
-            if (subscription.getPrecondition().test(event)) {
+        final var log = topicLog(topic);
+        if (subscription.getCurrentIndex().longValue() < log.getStartOffset()) {
+            subscription.setCurrentIndex(log.getStartOffset());
+        }
+        for (var index = subscription.getCurrentIndex(); index.longValue() < log.getEndOffset(); index.increment()) {
+            var event = log.read(index.longValue());
+            if (event != null && subscription.getPrecondition().test(event)) {
                 index.increment();
                 return event;
             }
@@ -132,13 +136,7 @@ public class EventBus {
     }
 
     private void moveIndexAtTimestamp(final String topic, final String subscriber, final long timeStamp) {
-        final var closestEventAfter = eventTimestamps.get(topic).higherEntry(timeStamp);
-        if (closestEventAfter == null) {
-            pullSubscriptions.get(topic).get(subscriber).setCurrentIndex(eventIndexes.get(topic).size());
-        } else {
-            final var eventIndex = eventIndexes.get(topic).get(closestEventAfter.getValue());
-            pullSubscriptions.get(topic).get(subscriber).setCurrentIndex(eventIndex);
-        }
+        pullSubscriptions.get(topic).get(subscriber).setCurrentIndex(topicLog(topic).offsetAfter(timeStamp));
     }
 
     public CompletionStage<Void> subscribeToEventsAfter(final String topic, final String subscriber, final String eventId) {
@@ -149,8 +147,11 @@ public class EventBus {
         if (eventId == null) {
             pullSubscriptions.get(topic).get(subscriber).setCurrentIndex(0);
         } else {
-            final var eventIndex = eventIndexes.get(topic).get(eventId) + 1;
-            pullSubscriptions.get(topic).get(subscriber).setCurrentIndex(eventIndex);
+            final long offset = topicLog(topic).offsetOf(eventId);
+            if (offset < 0) {
+                throw new UnknownEventException();
+            }
+            pullSubscriptions.get(topic).get(subscriber).setCurrentIndex(offset + 1);
         }
     }
 
@@ -179,7 +180,7 @@ public class EventBus {
                                final int numberOfRetries) {
         pullSubscriptions.putIfAbsent(topic, new ConcurrentHashMap<>());
         final var subscription = new Subscription(topic, subscriber, precondition, handler, numberOfRetries);
-        subscription.setCurrentIndex(topics.getOrDefault(topic, new ArrayList<>()).size());
+        subscription.setCurrentIndex(topicLog(topic).getEndOffset());
         pullSubscriptions.get(topic).put(subscriber, subscription);
     }
 
@@ -199,5 +200,12 @@ public class EventBus {
         pushSubscriptions.getOrDefault(topic, new HashMap<>()).remove(subscriber);
         pullSubscriptions.getOrDefault(topic, new HashMap<>()).remove(subscriber);
     }
-}
 
+    private TopicLog topicLog(final String topic) {
+        return topics.computeIfAbsent(topic, topicLogs);
+    }
+
+    public void close() {
+        topics.values().forEach(TopicLog::close);
+    }
+}
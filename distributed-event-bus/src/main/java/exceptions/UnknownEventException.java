@@ -0,0 +1,4 @@
+package exceptions;
+
+public class UnknownEventException extends RuntimeException {
+}
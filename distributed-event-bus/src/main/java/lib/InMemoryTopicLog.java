@@ -0,0 +1,136 @@
+package lib;
+
+import models.Event;
+
+import java.util.Arrays;
+
+public class InMemoryTopicLog implements TopicLog {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAXIMUM_EVENTS = 1 << 29;
+    private volatile Event[][] events;
+    private volatile long[][] timestamps;
+    private volatile int[] idTable;
+    private volatile long endOffset;
+
+    public InMemoryTopicLog() {
+        this.events = new Event[1][];
+        this.timestamps = new long[1][];
+        this.idTable = new int[CHUNK_SIZE];
+    }
+
+    @Override
+    public synchronized long append(final Event event, final long timestamp) {
+        final long offset = endOffset;
+        if (find(idTable, event.getId(), offset) >= 0) {
+            return -1;
+        }
+        if (offset == MAXIMUM_EVENTS) {
+            throw new IllegalStateException("An in-memory topic holds at most " + MAXIMUM_EVENTS + " events");
+        }
+        final int chunk = (int) (offset >>> CHUNK_SHIFT);
+        final int slot = (int) offset & CHUNK_MASK;
+        if (slot == 0) {
+            addChunk(chunk);
+        }
+        events[chunk][slot] = event;
+        timestamps[chunk][slot] = offset == 0 ? timestamp : Math.max(timestamp, timestampAt(offset - 1));
+        if ((offset + 1) * 2 > idTable.length) {
+            idTable = rehash(idTable.length * 2, offset);
+        }
+        insert(idTable, event.getId(), offset);
+        endOffset = offset + 1;
+        return offset;
+    }
+
+    @Override
+    public Event read(final long offset) {
+        return offset < endOffset ? events[(int) (offset >>> CHUNK_SHIFT)][(int) offset & CHUNK_MASK] : null;
+    }
+
+    @Override
+    public long getStartOffset() {
+        return 0;
+    }
+
+    @Override
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    @Override
+    public long offsetOf(final String eventId) {
+        final long offset = find(idTable, eventId, endOffset);
+        if (offset >= 0) {
+            return offset;
+        }
+        synchronized (this) {
+            return find(idTable, eventId, endOffset);
+        }
+    }
+
+    @Override
+    public long offsetAfter(final long timestamp) {
+        long low = 0, high = endOffset;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (timestampAt(middle) <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private long timestampAt(final long offset) {
+        return timestamps[(int) (offset >>> CHUNK_SHIFT)][(int) offset & CHUNK_MASK];
+    }
+
+    private void addChunk(final int chunk) {
+        if (chunk == events.length) {
+            timestamps = Arrays.copyOf(timestamps, chunk * 2);
+            events = Arrays.copyOf(events, chunk * 2);
+        }
+        timestamps[chunk] = new long[CHUNK_SIZE];
+        events[chunk] = new Event[CHUNK_SIZE];
+    }
+
+    private int[] rehash(final int capacity, final long size) {
+        final int[] table = new int[capacity];
+        for (long offset = 0; offset < size; offset++) {
+            insert(table, read(offset).getId(), offset);
+        }
+        return table;
+    }
+
+    private long find(final int[] table, final String eventId, final long size) {
+        final int mask = table.length - 1;
+        for (int index = spread(eventId.hashCode()) & mask; table[index] != 0; index = (index + 1) & mask) {
+            final long offset = table[index] - 1;
+            if (offset < size && read(offset).getId().equals(eventId)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private static void insert(final int[] table, final String eventId, final long offset) {
+        final int mask = table.length - 1;
+        int index = spread(eventId.hashCode()) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = (int) offset + 1;
+    }
+
+    private static int spread(final int hash) {
+        final int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
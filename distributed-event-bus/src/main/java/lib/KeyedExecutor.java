@@ -9,23 +9,44 @@ import java.util.function.Supplier;
 
 public class KeyedExecutor<KEY> {
     private final Executor[] executorPool;
+    private final KeyedMailboxes<KEY> mailboxes;
 
     public KeyedExecutor(final int poolSize) {
         this.executorPool = new Executor[poolSize];
         for (int i = 0; i < poolSize; i++) {
             executorPool[i] = Executors.newSingleThreadExecutor();
         }
+        this.mailboxes = null;
+    }
+
+    public KeyedExecutor(final KeyedMailboxes<KEY> mailboxes) {
+        this.executorPool = null;
+        this.mailboxes = mailboxes;
     }
 
     public CompletionStage<Void> getThreadFor(KEY key, Runnable task) {
-        return CompletableFuture.runAsync(task, executorPool[Math.abs(key.hashCode() % executorPool.length)]);
+        return CompletableFuture.runAsync(task, executorFor(key));
     }
 
     public <U> CompletionStage<U> getThreadFor(KEY key, Supplier<U> task) {
-        return CompletableFuture.supplyAsync(task, executorPool[Math.abs(key.hashCode() % executorPool.length)]);
+        return CompletableFuture.supplyAsync(task, executorFor(key));
     }
 
     public <U> CompletionStage<U> getThreadFor(KEY key, CompletionStage<U> task) {
-        return CompletableFuture.supplyAsync(() -> task, executorPool[Math.abs(key.hashCode() % executorPool.length)]).thenCompose(Function.identity());
+        return CompletableFuture.supplyAsync(() -> task, executorFor(key)).thenCompose(Function.identity());
+    }
+
+    public <U> CompletionStage<U> getThreadForStage(KEY key, Supplier<? extends CompletionStage<U>> task) {
+        if (mailboxes != null) {
+            return mailboxes.submit(key, task);
+        }
+        return getThreadFor(key, task.get());
+    }
+
+    private Executor executorFor(final KEY key) {
+        if (mailboxes != null) {
+            return mailboxes.executorFor(key);
+        }
+        return executorPool[Math.abs(key.hashCode() % executorPool.length)];
     }
 }
@@ -0,0 +1,336 @@
+package lib;
+
+import models.Event;
+import models.EventType;
+import models.FailureEvent;
+import util.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class SegmentedTopicLog implements TopicLog {
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = Integer.BYTES + Long.BYTES;
+    private static final int INDEX_INTERVAL = 4096;
+    private static final byte EVENT = 0, FAILURE_EVENT = 1;
+    private final Path directory;
+    private final int segmentSize;
+    private final long retentionBytes;
+    private final long retentionTime;
+    private final long clockOffset;
+    private final Timer timer;
+    private final TreeMap<Long, Segment> segments;
+    private final Map<String, Long> offsets;
+    private Segment active;
+    private long endOffset;
+
+    public SegmentedTopicLog(final Path directory, final int segmentSize, final long retentionBytes, final Duration retentionTime, final Timer timer) {
+        if (segmentSize <= HEADER || (retentionBytes > 0 && retentionBytes < segmentSize)) {
+            throw new IllegalArgumentException("A topic log needs room for a record per segment and size retention of at least one segment");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retentionBytes = retentionBytes;
+        this.retentionTime = retentionTime.toNanos();
+        this.clockOffset = System.currentTimeMillis() * 1_000_000 - timer.getCurrentTime();
+        this.timer = timer;
+        this.segments = new TreeMap<>();
+        this.offsets = new HashMap<>();
+        try {
+            Files.createDirectories(directory);
+            final List<Path> files = new ArrayList<>();
+            try (final var stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                stream.forEach(files::add);
+            }
+            files.sort(null);
+            for (final Path file : files) {
+                recover(file);
+            }
+            enforceRetention(timer.getCurrentTime() + clockOffset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Function<String, TopicLog> factory(final Path directory,
+                                                     final int segmentSize,
+                                                     final long retentionBytes,
+                                                     final Duration retentionTime,
+                                                     final Timer timer) {
+        return topic -> new SegmentedTopicLog(directory.resolve(URLEncoder.encode(topic, StandardCharsets.UTF_8)), segmentSize, retentionBytes, retentionTime, timer);
+    }
+
+    @Override
+    public synchronized long append(final Event event, final long timestamp) {
+        if (offsets.containsKey(event.getId())) {
+            return -1;
+        }
+        final long wallTime = timestamp + clockOffset;
+        final long recordTime = active == null ? wallTime : Math.max(wallTime, active.lastTimestamp);
+        if (active == null || !active.append(event, recordTime)) {
+            roll();
+            if (!active.append(event, recordTime)) {
+                throw new IllegalArgumentException("Event " + event.getId() + " does not fit in a segment of " + segmentSize + " bytes");
+            }
+        }
+        offsets.put(event.getId(), endOffset);
+        enforceRetention(recordTime);
+        return endOffset++;
+    }
+
+    @Override
+    public synchronized Event read(final long offset) {
+        if (offset < startOffset() || offset >= endOffset) {
+            return null;
+        }
+        final var segment = segments.floorEntry(offset).getValue();
+        return decode(segment.reader(segment.positionOf((int) (offset - segment.baseOffset)) + HEADER));
+    }
+
+    @Override
+    public synchronized long getStartOffset() {
+        enforceRetention(timer.getCurrentTime() + clockOffset);
+        return startOffset();
+    }
+
+    @Override
+    public synchronized long getEndOffset() {
+        return endOffset;
+    }
+
+    @Override
+    public synchronized long offsetOf(final String eventId) {
+        return offsets.getOrDefault(eventId, -1L);
+    }
+
+    @Override
+    public synchronized long offsetAfter(final long timestamp) {
+        enforceRetention(timer.getCurrentTime() + clockOffset);
+        final long wallTime = timestamp + clockOffset;
+        for (final Segment segment : segments.values()) {
+            if (segment.lastTimestamp > wallTime) {
+                return segment.baseOffset + segment.countUntil(wallTime);
+            }
+        }
+        return endOffset;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (final Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    public synchronized long getSize() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    private long startOffset() {
+        return segments.isEmpty() ? endOffset : segments.firstKey();
+    }
+
+    private void recover(final Path file) throws IOException {
+        final long baseOffset = Long.parseLong(file.getFileName().toString().replace(SUFFIX, ""));
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var segment = new Segment(baseOffset, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize)));
+            segment.scan(eventId -> offsets.put(eventId, baseOffset + segment.count));
+            segments.put(baseOffset, segment);
+            active = segment;
+            endOffset = baseOffset + segment.count;
+        }
+    }
+
+    private void roll() {
+        final var path = directory.resolve(String.format("%020d%s", endOffset, SUFFIX));
+        try (final var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = new Segment(endOffset, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(active.baseOffset, active);
+    }
+
+    private void enforceRetention(final long currentTime) {
+        while (segments.size() > 1) {
+            final var oldest = segments.firstEntry().getValue();
+            final boolean oversized = retentionBytes > 0 && getSize() > retentionBytes;
+            final boolean expired = retentionTime > 0 && currentTime - oldest.lastTimestamp > retentionTime;
+            if (!oversized && !expired) {
+                return;
+            }
+            oldest.scan(offsets::remove);
+            segments.remove(oldest.baseOffset);
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void encode(final ByteBuffer writer, final Event event) {
+        writer.put(event instanceof FailureEvent ? FAILURE_EVENT : EVENT);
+        putString(writer, event.getId());
+        putString(writer, event.getPublisher());
+        writer.put((byte) event.getEventType().ordinal());
+        putString(writer, event.getDescription());
+        writer.putLong(event.getCreationTime());
+        if (event instanceof FailureEvent) {
+            encode(writer, ((FailureEvent) event).getEvent());
+        }
+    }
+
+    private static Event decode(final ByteBuffer reader) {
+        final byte type = reader.get();
+        final String id = getString(reader);
+        final String publisher = getString(reader);
+        final EventType eventType = EventType.values()[reader.get()];
+        final String description = getString(reader);
+        final long creationTime = reader.getLong();
+        if (type == FAILURE_EVENT) {
+            return new FailureEvent(id, decode(reader), new IllegalStateException(description), creationTime);
+        }
+        return new Event(id, publisher, eventType, description, creationTime);
+    }
+
+    private static void putString(final ByteBuffer writer, final String value) {
+        if (value == null) {
+            writer.putInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writer.putInt(bytes.length);
+        writer.put(bytes);
+    }
+
+    private static String getString(final ByteBuffer reader) {
+        final int length = reader.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Segment {
+        private final long baseOffset;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int count;
+        private long lastTimestamp;
+        private int[] indexCounts;
+        private int[] indexPositions;
+        private long[] indexTimestamps;
+        private int indexSize;
+
+        private Segment(final long baseOffset, final Path path, final MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+            this.indexCounts = new int[16];
+            this.indexPositions = new int[16];
+            this.indexTimestamps = new long[16];
+            this.lastTimestamp = Long.MIN_VALUE;
+        }
+
+        private boolean append(final Event event, final long timestamp) {
+            if (position + HEADER >= buffer.capacity()) {
+                return false;
+            }
+            final ByteBuffer writer = reader(position + HEADER);
+            try {
+                encode(writer, event);
+            } catch (BufferOverflowException e) {
+                return false;
+            }
+            buffer.putLong(position + Integer.BYTES, timestamp);
+            buffer.putInt(position, writer.position() - position - HEADER);
+            advance(timestamp);
+            return true;
+        }
+
+        private void scan(final Consumer<String> onEvent) {
+            position = 0;
+            count = 0;
+            indexSize = 0;
+            while (position + HEADER <= buffer.capacity()) {
+                final int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER + length > buffer.capacity()) {
+                    return;
+                }
+                final ByteBuffer reader = reader(position + HEADER + 1);
+                onEvent.accept(getString(reader));
+                advance(buffer.getLong(position + Integer.BYTES));
+            }
+        }
+
+        private void advance(final long timestamp) {
+            if (indexSize == 0 || position - indexPositions[indexSize - 1] >= INDEX_INTERVAL) {
+                if (indexSize == indexCounts.length) {
+                    indexCounts = Arrays.copyOf(indexCounts, indexSize * 2);
+                    indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+                    indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+                }
+                indexCounts[indexSize] = count;
+                indexPositions[indexSize] = position;
+                indexTimestamps[indexSize] = timestamp;
+                indexSize++;
+            }
+            position += HEADER + buffer.getInt(position);
+            count++;
+            lastTimestamp = timestamp;
+        }
+
+        private int positionOf(final int relativeOffset) {
+            int entry = Arrays.binarySearch(indexCounts, 0, indexSize, relativeOffset);
+            entry = entry >= 0 ? entry : -entry - 2;
+            int current = indexCounts[entry];
+            int recordPosition = indexPositions[entry];
+            while (current++ < relativeOffset) {
+                recordPosition += HEADER + buffer.getInt(recordPosition);
+            }
+            return recordPosition;
+        }
+
+        private int countUntil(final long timestamp) {
+            int entry = 0;
+            while (entry + 1 < indexSize && indexTimestamps[entry + 1] <= timestamp) {
+                entry++;
+            }
+            int current = indexCounts[entry];
+            int recordPosition = indexPositions[entry];
+            while (current < count && buffer.getLong(recordPosition + Integer.BYTES) <= timestamp) {
+                recordPosition += HEADER + buffer.getInt(recordPosition);
+                current++;
+            }
+            return current;
+        }
+
+        private ByteBuffer reader(final int position) {
+            final ByteBuffer reader = buffer.duplicate();
+            reader.position(position);
+            return reader;
+        }
+    }
+}
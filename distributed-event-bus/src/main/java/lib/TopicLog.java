@@ -0,0 +1,19 @@
+package lib;
+
+import models.Event;
+
+public interface TopicLog {
+    long append(Event event, long timestamp);
+
+    Event read(long offset);
+
+    long getStartOffset();
+
+    long getEndOffset();
+
+    long offsetOf(String eventId);
+
+    long offsetAfter(long timestamp);
+
+    void close();
+}
@@ -14,8 +14,16 @@ public class Event {
                  final EventType eventType,
                  final String description,
                  final long creationTime) {
+        this(UUID.randomUUID().toString(), publisher, eventType, description, creationTime);
+    }
+
+    public Event(final String id,
+                 final String publisher,
+                 final EventType eventType,
+                 final String description,
+                 final long creationTime) {
         this.description = description;
-        this.id = UUID.randomUUID().toString();
+        this.id = id;
         this.publisher = publisher;
         this.eventType = eventType;
         this.creationTime = creationTime;
@@ -10,6 +10,12 @@ public class FailureEvent extends Event {
         this.throwable = throwable;
     }
 
+    public FailureEvent(String id, Event event, Throwable throwable, long failureTimestamp) {
+        super(id, "dead-letter-queue", EventType.ERROR, throwable.getMessage(), failureTimestamp);
+        this.event = event;
+        this.throwable = throwable;
+    }
+
     public Event getEvent() {
         return event;
     }
@@ -46,7 +46,7 @@ public class Subscription {
         return currentIndex;
     }
 
-    public void setCurrentIndex(final int offset) {
+    public void setCurrentIndex(final long offset) {
         currentIndex.reset();
         currentIndex.add(offset);
     }
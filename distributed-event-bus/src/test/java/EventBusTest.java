@@ -1,7 +1,10 @@
 import com.google.gson.Gson;
 import exceptions.RetryLimitExceededException;
+import exceptions.UnknownEventException;
 import exceptions.UnsubscribedPollException;
 import lib.KeyedExecutor;
+import lib.KeyedMailboxes;
+import lib.SegmentedTopicLog;
 import models.Event;
 import models.EventType;
 import models.FailureEvent;
@@ -10,11 +13,19 @@ import org.junit.Before;
 import org.junit.Test;
 import util.Timer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 
@@ -110,6 +121,10 @@ public class EventBusTest {
 
         eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, thirdEvent.getId()).toCompletableFuture().join();
         Assert.assertNull(eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join());
+
+        Assert.assertTrue(eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, "unknown")
+                .handle((__, throwable) -> throwable.getCause() instanceof UnknownEventException).toCompletableFuture().join());
+        Assert.assertNull(eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join());
     }
 
     @Test
@@ -337,4 +352,200 @@ public class EventBusTest {
         Assert.assertEquals("random-event-12", event2.getDescription());
         Assert.assertNull(eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join());
     }
+
+    @Test
+    public void virtualThreadMailboxes() throws ExecutionException, InterruptedException, TimeoutException {
+        final EventBus eventBus = new EventBus(new KeyedExecutor<>(new KeyedMailboxes<>()), new KeyedExecutor<>(new KeyedMailboxes<>()), timer);
+        final var release = new CountDownLatch(1);
+        final List<Event> eventCollector = new ArrayList<>();
+        eventBus.subscribeForPush(TOPIC_1, SUBSCRIBER_1, (event) -> true, (event) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return CompletableFuture.completedFuture(null);
+        }, 0).toCompletableFuture().join();
+        eventBus.subscribeForPush(TOPIC_2, SUBSCRIBER_2, (event) -> true,
+                (event) -> CompletableFuture.runAsync(() -> eventCollector.add(event)), 0).toCompletableFuture().join();
+
+        final var blockedPublish = eventBus.publish(TOPIC_1, constructEvent(EventType.PRIORITY, "blocked event"));
+        eventBus.publish(TOPIC_2, constructEvent(EventType.PRIORITY, "free event")).toCompletableFuture().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("free event", eventCollector.get(0).getDescription());
+        Assert.assertFalse(blockedPublish.toCompletableFuture().isDone());
+
+        release.countDown();
+        blockedPublish.toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        final var pendingHandler = new CompletableFuture<Void>();
+        final var firstHandled = new CountDownLatch(1);
+        final List<String> handled = new CopyOnWriteArrayList<>();
+        eventBus.subscribeForPush(TOPIC_2, SUBSCRIBER_1, (event) -> true, (event) -> {
+            handled.add(event.getDescription());
+            firstHandled.countDown();
+            return handled.size() == 1 ? pendingHandler : CompletableFuture.completedFuture(null);
+        }, 0).toCompletableFuture().join();
+        final var firstPublish = eventBus.publish(TOPIC_2, constructEvent(EventType.PRIORITY, "first"));
+        final var secondPublish = eventBus.publish(TOPIC_2, constructEvent(EventType.PRIORITY, "second"));
+        Assert.assertTrue(firstHandled.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(secondPublish.toCompletableFuture().isDone());
+        Assert.assertEquals(List.of("first"), handled);
+        pendingHandler.complete(null);
+        firstPublish.toCompletableFuture().get(5, TimeUnit.SECONDS);
+        secondPublish.toCompletableFuture().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(List.of("first", "second"), handled);
+
+        final EventBus pooledEventBus = new EventBus(keyedExecutor, broadcastExecutor, timer);
+        final List<Thread> handlerThreads = new ArrayList<>();
+        pooledEventBus.subscribeForPush(TOPIC_1, SUBSCRIBER_1, (event) -> true, (event) -> {
+            handlerThreads.add(Thread.currentThread());
+            return CompletableFuture.completedFuture(null);
+        }, 0).toCompletableFuture().join();
+        pooledEventBus.publish(TOPIC_1, constructEvent(EventType.PRIORITY, "pooled event")).toCompletableFuture().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(List.of(Thread.currentThread()), handlerThreads);
+    }
+
+    @Test
+    public void chunkedTopicLog() {
+        final TestTimer timer = new TestTimer();
+        final long startTime = timer.getCurrentTime();
+        final EventBus eventBus = new EventBus(keyedExecutor, broadcastExecutor, timer);
+        eventBus.subscribeForPull(TOPIC_1, SUBSCRIBER_1, (event) -> true).toCompletableFuture().join();
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            timer.setCurrentTime(startTime + i);
+            final Event event = new Event(PUBLISHER_1, EventType.LOGGING, "event-" + i, timer.getCurrentTime());
+            events.add(event);
+            eventBus.publish(TOPIC_1, event).toCompletableFuture().join();
+        }
+        eventBus.publish(TOPIC_1, events.get(4096)).toCompletableFuture().join();
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertEquals("event-" + i, eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        }
+        Assert.assertNull(eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join());
+
+        eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, events.get(4095).getId()).toCompletableFuture().join();
+        Assert.assertEquals("event-4096", eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, startTime + 8191).toCompletableFuture().join();
+        Assert.assertEquals("event-8192", eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+    }
+
+    @Test
+    public void segmentedTopicLog() throws IOException {
+        final TestTimer timer = new TestTimer();
+        final Path directory = Files.createTempDirectory("event-bus");
+        final var topicLogs = SegmentedTopicLog.factory(directory, 1024, 4096, Duration.ofMinutes(1), timer);
+        final EventBus eventBus = new EventBus(keyedExecutor, broadcastExecutor, timer, topicLogs);
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final Event event = new Event(PUBLISHER_1, EventType.LOGGING, "event-" + i, timer.getCurrentTime());
+            events.add(event);
+            eventBus.publish(TOPIC_1, event).toCompletableFuture().join();
+        }
+        try (final var files = Files.list(directory.resolve(TOPIC_1))) {
+            Assert.assertEquals(4, files.count());
+        }
+
+        eventBus.subscribeForPull(TOPIC_1, SUBSCRIBER_1, (event) -> true).toCompletableFuture().join();
+        eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, null).toCompletableFuture().join();
+        final Event oldestRetained = eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join();
+        final int firstRetained = events.indexOf(events.stream().filter(event -> event.getId().equals(oldestRetained.getId())).findFirst().orElseThrow());
+        Assert.assertTrue(firstRetained > 50);
+        for (int i = firstRetained + 1; i < events.size(); i++) {
+            Assert.assertEquals("event-" + i, eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        }
+        Assert.assertNull(eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join());
+
+        eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, events.get(97).getId()).toCompletableFuture().join();
+        Assert.assertEquals("event-98", eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        final long publishTime = timer.getCurrentTime();
+        timer.setCurrentTime(publishTime + Duration.ofSeconds(10).toNanos());
+        eventBus.publish(TOPIC_1, new Event(PUBLISHER_1, EventType.PRIORITY, "late event", timer.getCurrentTime())).toCompletableFuture().join();
+        eventBus.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, publishTime + Duration.ofSeconds(5).toNanos()).toCompletableFuture().join();
+        Assert.assertEquals("late event", eventBus.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        eventBus.close();
+
+        final EventBus recovered = new EventBus(keyedExecutor, broadcastExecutor, timer, topicLogs);
+        recovered.publish(TOPIC_1, events.get(99)).toCompletableFuture().join();
+        recovered.subscribeForPull(TOPIC_1, SUBSCRIBER_1, (event) -> true).toCompletableFuture().join();
+        recovered.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, events.get(98).getId()).toCompletableFuture().join();
+        final Event lastEvent = recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join();
+        Assert.assertEquals(events.get(99).getId(), lastEvent.getId());
+        Assert.assertEquals(PUBLISHER_1, lastEvent.getPublisher());
+        Assert.assertEquals("late event", recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        Assert.assertNull(recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join());
+
+        timer.setCurrentTime(timer.getCurrentTime() + Duration.ofMinutes(2).toNanos());
+        recovered.publish(TOPIC_1, new Event(PUBLISHER_1, EventType.PRIORITY, "fresh event", timer.getCurrentTime())).toCompletableFuture().join();
+        try (final var files = Files.list(directory.resolve(TOPIC_1))) {
+            Assert.assertEquals(1, files.count());
+        }
+        recovered.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, null).toCompletableFuture().join();
+        final Event firstAfterExpiry = recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join();
+        Assert.assertNotEquals(oldestRetained.getId(), firstAfterExpiry.getId());
+        recovered.close();
+    }
+
+    @Test
+    public void segmentedTopicLogRestart() throws IOException {
+        final TestTimer timer = new TestTimer();
+        final Path directory = Files.createTempDirectory("event-bus");
+        final EventBus eventBus = new EventBus(keyedExecutor, broadcastExecutor, timer,
+                SegmentedTopicLog.factory(directory, 1024, 1 << 20, Duration.ofMinutes(1), timer));
+        for (int i = 0; i < 30; i++) {
+            eventBus.publish(TOPIC_1, new Event(PUBLISHER_1, EventType.LOGGING, "early event-" + i, timer.getCurrentTime())).toCompletableFuture().join();
+        }
+        timer.setCurrentTime(timer.getCurrentTime() + Duration.ofSeconds(10).toNanos());
+        eventBus.publish(TOPIC_1, new Event(PUBLISHER_1, EventType.PRIORITY, "late event", timer.getCurrentTime())).toCompletableFuture().join();
+        eventBus.close();
+        try (final var files = Files.list(directory.resolve(TOPIC_1))) {
+            Assert.assertTrue(files.count() > 1);
+        }
+
+        final TestTimer restartedTimer = new TestTimer();
+        restartedTimer.setCurrentTime(timer.getCurrentTime() - Duration.ofHours(1).toNanos());
+        final EventBus recovered = new EventBus(keyedExecutor, broadcastExecutor, restartedTimer,
+                SegmentedTopicLog.factory(directory, 1024, 1 << 20, Duration.ofMinutes(1), restartedTimer));
+        recovered.subscribeForPull(TOPIC_1, SUBSCRIBER_1, (event) -> true).toCompletableFuture().join();
+        recovered.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, restartedTimer.getCurrentTime() + Duration.ofSeconds(5).toNanos()).toCompletableFuture().join();
+        Assert.assertEquals("late event", recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        recovered.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, restartedTimer.getCurrentTime() - Duration.ofSeconds(5).toNanos()).toCompletableFuture().join();
+        Assert.assertEquals("early event-0", recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+
+        restartedTimer.setCurrentTime(restartedTimer.getCurrentTime() + Duration.ofMinutes(2).toNanos());
+        final var freshEvent = new Event(PUBLISHER_1, EventType.PRIORITY, "fresh event", restartedTimer.getCurrentTime());
+        recovered.publish(TOPIC_1, freshEvent).toCompletableFuture().join();
+        try (final var files = Files.list(directory.resolve(TOPIC_1))) {
+            Assert.assertEquals(1, files.count());
+        }
+        recovered.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, restartedTimer.getCurrentTime() - 1).toCompletableFuture().join();
+        Assert.assertEquals(freshEvent.getId(), recovered.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getId());
+        recovered.close();
+
+        final Path idleDirectory = Files.createTempDirectory("event-bus");
+        final EventBus idle = new EventBus(keyedExecutor, broadcastExecutor, timer,
+                SegmentedTopicLog.factory(idleDirectory, 1024, 0, Duration.ofMinutes(1), timer));
+        final Path unboundedDirectory = Files.createTempDirectory("event-bus");
+        final EventBus unbounded = new EventBus(keyedExecutor, broadcastExecutor, timer,
+                SegmentedTopicLog.factory(unboundedDirectory, 1024, 0, Duration.ZERO, timer));
+        for (int i = 0; i < 100; i++) {
+            idle.publish(TOPIC_1, new Event(PUBLISHER_1, EventType.LOGGING, "idle event-" + i, timer.getCurrentTime())).toCompletableFuture().join();
+            unbounded.publish(TOPIC_1, new Event(PUBLISHER_1, EventType.LOGGING, "idle event-" + i, timer.getCurrentTime())).toCompletableFuture().join();
+        }
+        timer.setCurrentTime(timer.getCurrentTime() + Duration.ofMinutes(2).toNanos());
+        idle.subscribeForPull(TOPIC_1, SUBSCRIBER_1, (event) -> true).toCompletableFuture().join();
+        unbounded.subscribeForPull(TOPIC_1, SUBSCRIBER_1, (event) -> true).toCompletableFuture().join();
+        idle.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, null).toCompletableFuture().join();
+        unbounded.subscribeToEventsAfter(TOPIC_1, SUBSCRIBER_1, null).toCompletableFuture().join();
+        Assert.assertNotEquals("idle event-0", idle.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        Assert.assertEquals("idle event-0", unbounded.poll(TOPIC_1, SUBSCRIBER_1).toCompletableFuture().join().getDescription());
+        try (final var files = Files.list(idleDirectory.resolve(TOPIC_1))) {
+            Assert.assertEquals(1, files.count());
+        }
+        try (final var files = Files.list(unboundedDirectory.resolve(TOPIC_1))) {
+            Assert.assertTrue(files.count() > 4);
+        }
+        idle.close();
+        unbounded.close();
+    }
 }